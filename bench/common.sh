@@ -0,0 +1,18 @@
+# Shared helpers for the bench scripts. Expects ROOT and CERTS_DIR to be set.
+
+# Throwaway mTLS cert set signed by a throwaway CA, using the same SANs as infra/cert-generator.
+generate_certs() {
+    mkdir -p "${CERTS_DIR}"
+    openssl req -x509 -newkey rsa:2048 -nodes -days 1 \
+        -keyout "${CERTS_DIR}/ca.key" -out "${CERTS_DIR}/ca.crt" \
+        -subj '/CN=bench-CA' 2>/dev/null
+    for kind in server client; do
+        openssl req -new -newkey rsa:2048 -nodes \
+            -keyout "${CERTS_DIR}/${kind}.key" -out "${CERTS_DIR}/${kind}.csr" \
+            -config "${ROOT}/infra/cert-generator/openssl-${kind}.cnf" 2>/dev/null
+        openssl x509 -req -in "${CERTS_DIR}/${kind}.csr" \
+            -CA "${CERTS_DIR}/ca.crt" -CAkey "${CERTS_DIR}/ca.key" -CAcreateserial \
+            -out "${CERTS_DIR}/${kind}.crt" -days 1 \
+            -extensions v3_req -extfile "${ROOT}/infra/cert-generator/openssl-${kind}.cnf" 2>/dev/null
+    done
+}
@@ -0,0 +1,61 @@
+#!/bin/bash
+# Overload test for the adaptive concurrency limit (grpc.server.concurrency-limit.*).
+#
+# Drives order-service well past its capacity with the limit disabled, with the gradient limit
+# and with the AIMD limit, and prints goodput (OK calls/s), p99 latency of OK calls and the
+# non-OK status counts. Without a limit, goodput collapses as calls queue past the client
+# deadline; with it, excess calls fail fast with RESOURCE_EXHAUSTED and goodput stays flat.
+#
+# Requirements: JDK 17, Maven, openssl, ghz, jq.
+#
+# Usage: bench/overload-loadtest.sh     (DURATION=30s LEVELS="50 500 2000" DEADLINE=250ms by default)
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+. "${ROOT}/bench/common.sh"
+WORK="${WORK:-$(mktemp -d)}"
+CERTS_DIR="${WORK}/certs"
+DURATION="${DURATION:-30s}"
+LEVELS="${LEVELS:-50 500 2000}"
+DEADLINE="${DEADLINE:-250ms}"
+MODULE="${ROOT}/services/order-service-java"
+BODY='{"user_id":"bench","restaurant_id":"r-1","items":["burger"]}'
+
+# name | server overrides
+SCENARIOS=$(cat <<'END'
+no-limit|--grpc.server.concurrency-limit.enabled=false
+gradient|--grpc.server.concurrency-limit.algorithm=gradient
+aimd|--grpc.server.concurrency-limit.algorithm=aimd
+END
+)
+
+generate_certs
+(cd "${MODULE}" && mvn -B -q clean package -DskipTests -Dproto.dir="${ROOT}/proto")
+JAR="$(ls "${MODULE}"/target/*-SNAPSHOT.jar | head -1)"
+
+printf "%-10s %12s %12s %10s  %s\n" scenario concurrency goodput p99-ms "non-OK statuses"
+while IFS='|' read -r name overrides; do
+    # INFO logging keeps per-call log lines from dominating the profile
+    CERTS_DIR="${CERTS_DIR}" java -jar "${JAR}" ${overrides} \
+        --logging.level.io.github.leoferamos.grpc=INFO >"${WORK}/${name}.log" 2>&1 &
+    pid=$!
+    until (exec 3<>/dev/tcp/localhost/9090) 2>/dev/null; do sleep 0.2; done
+
+    for level in ${LEVELS}; do
+        ghz --cacert "${CERTS_DIR}/ca.crt" --cert "${CERTS_DIR}/client.crt" --key "${CERTS_DIR}/client.key" \
+            --cname order-service --import-paths "${ROOT}/proto" --proto order.proto \
+            --call order.OrderService/CreateOrder -d "${BODY}" \
+            --concurrency "${level}" --connections 8 --duration "${DURATION}" --timeout "${DEADLINE}" \
+            -O json localhost:9090 >"${WORK}/${name}-${level}.json" 2>/dev/null || true
+
+        jq -r --arg name "${name}" --arg level "${level}" '
+            [ $name, $level,
+              ((.statusCodeDistribution.OK // 0) / (.total / 1e9)),
+              ((.latencyDistribution // [] | map(select(.percentage == 99))[0].latency // 0) / 1e6),
+              (.statusCodeDistribution // {} | to_entries | map(select(.key != "OK") | "\(.key)=\(.value)") | join(","))
+            ] | @tsv' "${WORK}/${name}-${level}.json" \
+            | awk -F'\t' '{ printf "%-10s %12s %12d %10.2f  %s\n", $1, $2, $3, $4, $5 }'
+    done
+
+    kill "${pid}" && wait "${pid}" 2>/dev/null || true
+done <<< "${SCENARIOS}"
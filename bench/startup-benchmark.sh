@@ -0,0 +1,86 @@
+#!/bin/bash
+# Startup benchmark for order-service and payment-service.
+#
+# Builds each variant (plain jar, Spring AOT, AOT + AppCDS, GraalVM native image),
+# starts it, and measures time to the first successfully served RPC and the
+# resident memory (VmRSS) right after that RPC.
+#
+# Requirements: JDK 17, Maven, openssl, grpcurl. The native variant needs a
+# GraalVM JDK on the PATH (set NATIVE=0 to skip it).
+#
+# Usage: bench/startup-benchmark.sh [order|payment] ...
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+. "${ROOT}/bench/common.sh"
+WORK="${WORK:-$(mktemp -d)}"
+CERTS_DIR="${WORK}/certs"
+NATIVE="${NATIVE:-1}"
+RUNS="${RUNS:-3}"
+SERVICES="${*:-order payment}"
+
+# service -> module dir, port, RPC, request body
+module_dir() { echo "${ROOT}/services/$1-service-java"; }
+port()       { [ "$1" = order ] && echo 9090 || echo 9091; }
+rpc()        { [ "$1" = order ] && echo order.OrderService/CreateOrder || echo payment.PaymentService/ProcessPayment; }
+proto_file() { echo "$1.proto"; }
+body() {
+    if [ "$1" = order ]; then
+        echo '{"user_id":"bench","restaurant_id":"r-1","items":["burger"]}'
+    else
+        echo '{"order_id":"bench","user_id":"customer-123","amount":1.0,"payment_method":"PIX"}'
+    fi
+}
+
+build() {
+    local service=$1 profiles=$2
+    (cd "$(module_dir "${service}")" && mvn -B -q clean package -DskipTests \
+        -Dproto.dir="${ROOT}/proto" -Dcds.certs.dir="${CERTS_DIR}" ${profiles:+-P${profiles}})
+}
+
+launch() {
+    local service=$1 variant=$2 dir jar
+    dir="$(module_dir "${service}")/target"
+    jar="$(ls "${dir}"/*-SNAPSHOT.jar | head -1)"
+    case "${variant}" in
+        jvm)    CERTS_DIR="${CERTS_DIR}" java -jar "${jar}" ;;
+        aot)    CERTS_DIR="${CERTS_DIR}" java -Dspring.aot.enabled=true -jar "${jar}" ;;
+        cds)    CERTS_DIR="${CERTS_DIR}" java -Dspring.aot.enabled=true \
+                    -XX:SharedArchiveFile="${dir}/cds/application.jsa" -jar "${dir}/cds/$(basename "${jar}")" ;;
+        native) CERTS_DIR="${CERTS_DIR}" "${dir}/${service}-service" ;;
+    esac
+}
+
+measure() {
+    local service=$1 variant=$2 start pid elapsed rss
+    start=$(date +%s%N)
+    launch "${service}" "${variant}" >"${WORK}/${service}-${variant}.log" 2>&1 &
+    pid=$!
+    until grpcurl -max-time 1 -cacert "${CERTS_DIR}/ca.crt" \
+            -cert "${CERTS_DIR}/client.crt" -key "${CERTS_DIR}/client.key" \
+            -authority "${service}-service" -import-path "${ROOT}/proto" -proto "$(proto_file "${service}")" \
+            -d "$(body "${service}")" "localhost:$(port "${service}")" "$(rpc "${service}")" >/dev/null 2>&1; do
+        if ! kill -0 "${pid}" 2>/dev/null; then
+            echo "${service}/${variant}: process exited, see ${WORK}/${service}-${variant}.log" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/${pid}/status")
+    kill "${pid}" && wait "${pid}" 2>/dev/null || true
+    printf "%-8s %-7s %8d ms %8d MB\n" "${service}" "${variant}" "${elapsed}" "$((rss / 1024))"
+}
+
+generate_certs
+echo "service  variant  first-RPC      RSS"
+for service in ${SERVICES}; do
+    variants="jvm:"$'\n'"aot:aot"$'\n'"cds:aot,cds"
+    [ "${NATIVE}" = 1 ] && variants="${variants}"$'\n'"native:native"
+    while IFS=: read -r variant profiles; do
+        build "${service}" "${profiles}"
+        for _ in $(seq "${RUNS}"); do
+            measure "${service}" "${variant}"
+        done
+    done <<< "${variants}"
+done
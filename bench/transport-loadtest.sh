@@ -0,0 +1,73 @@
+#!/bin/bash
+# Load test for the gRPC transport settings (grpc.server.* / grpc.client.transport.*).
+#
+# Starts order-service once per scenario with one transport property overridden and drives
+# it with ghz over mTLS, printing throughput, p50/p99 latency and non-OK status counts so
+# the effect of each setting can be compared against the baseline.
+#
+# Requirements: JDK 17, Maven, openssl, ghz, jq.
+#
+# Usage: bench/transport-loadtest.sh            (DURATION=30s CONCURRENCY=200 by default)
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+. "${ROOT}/bench/common.sh"
+WORK="${WORK:-$(mktemp -d)}"
+CERTS_DIR="${WORK}/certs"
+DURATION="${DURATION:-30s}"
+CONCURRENCY="${CONCURRENCY:-200}"
+MODULE="${ROOT}/services/order-service-java"
+# The adaptive concurrency limiter would shed most of CONCURRENCY calls with RESOURCE_EXHAUSTED
+# and hide the transport setting under test, so every scenario runs without it
+COMMON_OVERRIDES="--grpc.server.concurrency-limit.enabled=false"
+
+SMALL_BODY='{"user_id":"bench","restaurant_id":"r-1","items":["burger"]}'
+# ~128 KiB request, enough to exercise flow-control windows and message size limits
+LARGE_BODY="$(jq -cn '{user_id:"bench",restaurant_id:"r-1",items:[range(2048)|"item-\(.)-" + ("x"*56)]}')"
+
+# name | server overrides | ghz flags | body
+SCENARIOS=$(cat <<'END'
+baseline||--connections=4|small
+max-concurrent-calls=16|--grpc.server.max-concurrent-calls-per-connection=16|--connections=1|small
+max-concurrent-calls=1000|--grpc.server.max-concurrent-calls-per-connection=1000|--connections=1|small
+fixed-window=64KiB|--grpc.server.flow-control-window=65535|--connections=1|large
+bdp-window=1MiB|--grpc.server.initial-flow-control-window=1048576|--connections=1|large
+keepalive-permit=5m|--grpc.server.permit-keep-alive-time=5m|--connections=4 --keepalive=10s|small
+keepalive-permit=10s|--grpc.server.permit-keep-alive-time=10s|--connections=4 --keepalive=10s|small
+max-connection-age=off|--grpc.server.max-connection-age=|--connections=4|small
+max-connection-age=5s|--grpc.server.max-connection-age=5s --grpc.server.max-connection-age-grace=2s|--connections=4|small
+max-inbound=64KiB|--grpc.server.max-inbound-message-size=65536|--connections=4|large
+max-inbound=4MiB|--grpc.server.max-inbound-message-size=4194304|--connections=4|large
+END
+)
+
+generate_certs
+(cd "${MODULE}" && mvn -B -q clean package -DskipTests -Dproto.dir="${ROOT}/proto")
+JAR="$(ls "${MODULE}"/target/*-SNAPSHOT.jar | head -1)"
+
+printf "%-26s %10s %10s %10s  %s\n" scenario rps p50-ms p99-ms "non-OK statuses"
+while IFS='|' read -r name overrides ghz_flags body_kind; do
+    CERTS_DIR="${CERTS_DIR}" java -jar "${JAR}" ${COMMON_OVERRIDES} ${overrides} >"${WORK}/${name}.log" 2>&1 &
+    pid=$!
+    until (exec 3<>/dev/tcp/localhost/9090) 2>/dev/null; do sleep 0.2; done
+
+    body="${SMALL_BODY}"
+    [ "${body_kind}" = large ] && body="${LARGE_BODY}"
+
+    ghz --cacert "${CERTS_DIR}/ca.crt" --cert "${CERTS_DIR}/client.crt" --key "${CERTS_DIR}/client.key" \
+        --cname order-service --import-paths "${ROOT}/proto" --proto order.proto \
+        --call order.OrderService/CreateOrder -d "${body}" \
+        --concurrency "${CONCURRENCY}" --duration "${DURATION}" ${ghz_flags} \
+        -O json localhost:9090 >"${WORK}/${name}.json" 2>/dev/null || true
+
+    jq -r --arg name "${name}" '
+        [ $name,
+          (.rps | floor),
+          ((.latencyDistribution // [] | map(select(.percentage == 50))[0].latency // 0) / 1e6),
+          ((.latencyDistribution // [] | map(select(.percentage == 99))[0].latency // 0) / 1e6),
+          (.statusCodeDistribution // {} | to_entries | map(select(.key != "OK") | "\(.key)=\(.value)") | join(","))
+        ] | @tsv' "${WORK}/${name}.json" \
+        | awk -F'\t' '{ printf "%-26s %10d %10.2f %10.2f  %s\n", $1, $2, $3, $4, $5 }'
+
+    kill "${pid}" && wait "${pid}" 2>/dev/null || true
+done <<< "${SCENARIOS}"
@@ -2,8 +2,10 @@ package io.github.leoferamos.grpc.gateway_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class GatewayApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,55 @@
+package io.github.leoferamos.grpc.gateway_api.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Deferred work on orders that createOrder could not finish: driver assignment retries,
+ * payment review timeouts and the cleanup of orders nobody resolved.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.follow-up")
+public class FollowUpProperties {
+
+    private boolean enabled = true;
+
+    /** Timing wheel resolution; timers fire up to one tick late. */
+    private Duration tick = Duration.ofMillis(100);
+
+    /** Buckets in the wheel; delays longer than tick * ticks-per-wheel wait extra rounds. */
+    private int ticksPerWheel = 4096;
+
+    /** Timers allowed at once; further follow-ups are refused (and logged) rather than queued. */
+    private long maxPendingTimers = 2_000_000;
+
+    /** Threads running the gRPC calls and notifications triggered by timers. */
+    private int workerThreads = 4;
+
+    /** Fired timers waiting for a worker; when full, driver retries are pushed back by one backoff step. */
+    private int maxQueuedActions = 10_000;
+
+    private DriverRetry driverRetry = new DriverRetry();
+
+    /** A PENDING payment still unresolved after this long is reported as failed. */
+    private Duration paymentReviewTimeout = Duration.ofMinutes(15);
+
+    /** Orders still waiting for a driver after this long are given up and their timers dropped. */
+    private Duration staleOrderAfter = Duration.ofMinutes(30);
+
+    @Data
+    public static class DriverRetry {
+
+        private Duration initialBackoff = Duration.ofSeconds(5);
+
+        private Duration maxBackoff = Duration.ofMinutes(2);
+
+        private double multiplier = 2.0;
+
+        /** Each delay is spread by up to this fraction either way, so retries of a burst don't align. */
+        private double jitter = 0.2;
+
+        /** Deadline of each retried AssignDriver call. */
+        private Duration callTimeout = Duration.ofSeconds(5);
+    }
+}
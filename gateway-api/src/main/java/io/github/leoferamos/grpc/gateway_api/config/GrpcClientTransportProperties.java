@@ -0,0 +1,42 @@
+package io.github.leoferamos.grpc.gateway_api.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Netty transport settings shared by every gRPC channel the gateway opens.
+ */
+@Data
+@ConfigurationProperties(prefix = "grpc.client.transport")
+public class GrpcClientTransportProperties {
+
+    /** Starting per-stream window; BDP auto-tuning grows it from here. */
+    private int initialFlowControlWindow = 1024 * 1024;
+
+    /** Fixed per-stream window. When set, BDP auto-tuning is disabled and this value is used as-is. */
+    private Integer flowControlWindow;
+
+    /** Must not be shorter than the servers' grpc.server.permit-keep-alive-time. */
+    private Duration keepAliveTime = Duration.ofSeconds(30);
+
+    private Duration keepAliveTimeout = Duration.ofSeconds(10);
+
+    private boolean keepAliveWithoutCalls = false;
+
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    private int maxInboundMessageSize = 4 * 1024 * 1024;
+
+    /**
+     * round_robin spreads calls over every resolved address; combined with the servers'
+     * max connection age this lets long-lived channels pick up newly scaled replicas.
+     */
+    private String loadBalancingPolicy = "round_robin";
+
+    /**
+     * Serialize requests through a per-thread scratch array and give request threads
+     * allocator caches. See PooledMarshalling.
+     */
+    private boolean pooledMarshalling = false;
+}
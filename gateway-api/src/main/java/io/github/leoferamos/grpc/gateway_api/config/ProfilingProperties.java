@@ -0,0 +1,58 @@
+package io.github.leoferamos.grpc.gateway_api.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * JDK Flight Recorder settings: an always-on recording plus bounded on-demand recordings
+ * controlled through the flightrecorder actuator endpoint.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.profiling")
+public class ProfilingProperties {
+
+    /** Where dumps are written before being served by the endpoint. */
+    private Path dumpDirectory = Path.of(System.getProperty("java.io.tmpdir"), "gateway-jfr");
+
+    /** Dump files kept on disk; older ones are deleted. */
+    private int maxDumps = 10;
+
+    private Continuous continuous = new Continuous();
+
+    private OnDemand onDemand = new OnDemand();
+
+    @Data
+    public static class Continuous {
+
+        private boolean enabled = true;
+
+        /** JFC configuration name; "default" is the low-overhead (~1%) profile. */
+        private String settings = "default";
+
+        private Duration maxAge = Duration.ofHours(6);
+
+        private DataSize maxSize = DataSize.ofMegabytes(250);
+
+        /** Order stages faster than this are not recorded, keeping the event rate low. */
+        private Duration stageThreshold = Duration.ofMillis(5);
+    }
+
+    @Data
+    public static class OnDemand {
+
+        /** JFC configuration used when the request does not name one; "profile" samples more often. */
+        private String settings = "profile";
+
+        /** Default and upper bound for the duration of an on-demand recording. */
+        private Duration maxDuration = Duration.ofMinutes(10);
+
+        /** Default and upper bound for the size of an on-demand recording. */
+        private DataSize maxSize = DataSize.ofMegabytes(100);
+
+        /** On-demand recordings allowed to exist at the same time. */
+        private int maxRecordings = 2;
+    }
+}
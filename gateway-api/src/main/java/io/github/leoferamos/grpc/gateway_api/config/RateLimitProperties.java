@@ -0,0 +1,42 @@
+package io.github.leoferamos.grpc.gateway_api.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control limits applied in front of order creation.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Maximum number of createOrder calls in flight across all customers. */
+    private int maxConcurrentOrders = 200;
+
+    /** Upper bound on tracked buckets per key type; least valuable entries are evicted first. */
+    private long maxTrackedKeys = 100_000;
+
+    /** Buckets not touched for this long are dropped (an idle bucket is full anyway). */
+    private Duration idleExpiry = Duration.ofMinutes(5);
+
+    private Bucket customer = new Bucket(5.0, 10);
+
+    private Bucket restaurant = new Bucket(50.0, 100);
+
+    @Data
+    public static class Bucket {
+        private double permitsPerSecond;
+        private int burst;
+
+        public Bucket() {
+        }
+
+        public Bucket(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+}
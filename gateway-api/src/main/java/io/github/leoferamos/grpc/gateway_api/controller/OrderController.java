@@ -2,11 +2,14 @@ package io.github.leoferamos.grpc.gateway_api.controller;
 
 import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderRequest;
 import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderResponse;
+import io.github.leoferamos.grpc.gateway_api.service.OrderAdmissionService;
 import io.github.leoferamos.grpc.gateway_api.service.OrderGatewayService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -16,12 +19,30 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderGatewayService orderGatewayService;
+    private final OrderAdmissionService orderAdmissionService;
 
     @PostMapping
     public ResponseEntity<CreateOrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
         log.info("Received order request for customer: {}", request.getCustomerId());
-        
-        try {
+
+        if (!StringUtils.hasText(request.getCustomerId()) || !StringUtils.hasText(request.getRestaurantId())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(CreateOrderResponse.builder()
+                            .status("INVALID_REQUEST")
+                            .message("customerId and restaurantId are required")
+                            .build());
+        }
+        try (OrderAdmissionService.Admission admission =
+                     orderAdmissionService.tryAdmit(request.getCustomerId(), request.getRestaurantId())) {
+            if (!admission.isGranted()) {
+                log.warn("Order request rejected: {}", admission.getReason());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()))
+                        .body(CreateOrderResponse.builder()
+                                .status("RATE_LIMITED")
+                                .message(admission.getReason())
+                                .build());
+            }
             CreateOrderResponse response = orderGatewayService.createOrder(request);
             log.info("Order created successfully: {}", response.getOrderId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -0,0 +1,104 @@
+package io.github.leoferamos.grpc.gateway_api.marshalling;
+
+import com.sun.management.ThreadMXBean;
+import io.github.leoferamos.grpc.gateway_api.config.GrpcClientTransportProperties;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocator;
+import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in low-allocation marshalling for the gateway's gRPC channels
+ * ({@code grpc.client.transport.pooled-marshalling}): requests are serialized through
+ * {@link PooledProtoMarshaller}'s per-thread scratch array, and every channel shares one pooled
+ * allocator whose thread-local caches also serve the request threads that write those messages
+ * into Netty buffers (gRPC's own allocator only caches for its event loops).
+ *
+ * <p>Bytes allocated per order are recorded either way, tagged by mode, next to Spring Boot's
+ * {@code jvm.gc.memory.allocated} and {@code jvm.gc.pause}, so both modes can be compared on
+ * the same dashboards.
+ */
+@Slf4j
+@Component
+public class PooledMarshalling {
+
+    /** HotSpot's extension of the thread bean, or null on JVMs without per-thread allocation counters. */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads
+            ? threads
+            : null;
+
+    private final boolean enabled;
+    private final boolean allocationTracked;
+    private final PooledProtoMarshaller.Counters counters = new PooledProtoMarshaller.Counters();
+    private final PooledMarshallingInterceptor interceptor = new PooledMarshallingInterceptor(counters);
+    private final PooledByteBufAllocator allocator;
+    private final DistributionSummary orderAllocation;
+
+    public PooledMarshalling(GrpcClientTransportProperties transport, MeterRegistry registry) {
+        this.enabled = transport.isPooledMarshalling();
+        this.allocationTracked = THREADS != null
+                && THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+        this.orderAllocation = DistributionSummary.builder("gateway.order.allocated")
+                .description("Heap allocated by the request thread while creating one order")
+                .baseUnit("bytes")
+                .tag("marshalling", enabled ? "pooled" : "default")
+                .register(registry);
+        if (!enabled) {
+            this.allocator = null;
+            return;
+        }
+        this.allocator = new PooledByteBufAllocator(PooledByteBufAllocator.defaultPreferDirect(),
+                PooledByteBufAllocator.defaultNumHeapArena(), PooledByteBufAllocator.defaultNumDirectArena(),
+                PooledByteBufAllocator.defaultPageSize(), PooledByteBufAllocator.defaultMaxOrder(),
+                PooledByteBufAllocator.defaultSmallCacheSize(), PooledByteBufAllocator.defaultNormalCacheSize(),
+                true);
+        Gauge.builder("grpc.client.allocator.used", allocator, a -> a.metric().usedDirectMemory())
+                .tag("memory", "direct")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("grpc.client.allocator.used", allocator, a -> a.metric().usedHeapMemory())
+                .tag("memory", "heap")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("grpc.client.allocator.thread.caches", allocator, a -> a.metric().numThreadLocalCaches())
+                .register(registry);
+        FunctionCounter.builder("grpc.client.messages.serialized", counters, PooledProtoMarshaller.Counters::scratch)
+                .tag("buffer", "scratch")
+                .register(registry);
+        FunctionCounter.builder("grpc.client.messages.serialized", counters, PooledProtoMarshaller.Counters::allocated)
+                .tag("buffer", "allocated")
+                .register(registry);
+        log.info("Pooled gRPC marshalling enabled (direct buffers: {})", allocator.isDirectBufferPooled());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Adds the pooled allocator and marshallers to a channel; leaves it untouched when disabled. */
+    public NettyChannelBuilder configure(NettyChannelBuilder builder) {
+        if (enabled) {
+            builder.withOption(ChannelOption.ALLOCATOR, allocator)
+                    .intercept(interceptor);
+        }
+        return builder;
+    }
+
+    /** Heap allocated so far by the calling thread, or -1 when the JVM does not track it. */
+    public long threadAllocatedBytes() {
+        return allocationTracked ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /** Records what the calling thread allocated since {@link #threadAllocatedBytes()} returned {@code start}. */
+    public void recordOrderAllocation(long start) {
+        if (start >= 0) {
+            orderAllocation.record(THREADS.getCurrentThreadAllocatedBytes() - start);
+        }
+    }
+}
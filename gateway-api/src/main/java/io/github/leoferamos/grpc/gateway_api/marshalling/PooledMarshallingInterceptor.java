@@ -0,0 +1,36 @@
+package io.github.leoferamos.grpc.gateway_api.marshalling;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.MethodDescriptor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes every call on a channel use {@link PooledProtoMarshaller}s. The rewritten method
+ * descriptor is built once per method and cached.
+ */
+public class PooledMarshallingInterceptor implements ClientInterceptor {
+
+    private final PooledProtoMarshaller.Counters counters;
+    private final Map<String, MethodDescriptor<?, ?>> methods = new ConcurrentHashMap<>();
+
+    public PooledMarshallingInterceptor(PooledProtoMarshaller.Counters counters) {
+        this.counters = counters;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return next.newCall(pooled(method), callOptions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ReqT, RespT> MethodDescriptor<ReqT, RespT> pooled(MethodDescriptor<ReqT, RespT> method) {
+        return (MethodDescriptor<ReqT, RespT>) methods.computeIfAbsent(method.getFullMethodName(),
+                name -> method.toBuilder(PooledProtoMarshaller.wrap(method.getRequestMarshaller(), counters),
+                        PooledProtoMarshaller.wrap(method.getResponseMarshaller(), counters)).build());
+    }
+}
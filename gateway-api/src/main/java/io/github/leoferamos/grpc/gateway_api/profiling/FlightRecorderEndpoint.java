@@ -0,0 +1,70 @@
+package io.github.leoferamos.grpc.gateway_api.profiling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@code /actuator/flightrecorder}: list recordings (GET), start one (POST /{name} with optional
+ * duration, maxSize and settings), stop it (DELETE /{name}) and download a dump (GET /{name}).
+ * The always-on recording is named "continuous"; names are limited to {@code [A-Za-z0-9_-]+}.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+@RequiredArgsConstructor
+public class FlightRecorderEndpoint {
+
+    private final FlightRecorderService recorder;
+
+    @ReadOperation
+    public List<FlightRecorderService.RecordingInfo> recordings() {
+        return recorder.list();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector String name) throws IOException {
+        Path file;
+        try {
+            file = recorder.dump(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return file == null ? null : new FileSystemResource(file);
+    }
+
+    @WriteOperation
+    public FlightRecorderService.RecordingInfo start(@Selector String name, @Nullable Duration duration,
+                                                     @Nullable DataSize maxSize, @Nullable String settings) {
+        try {
+            return recorder.start(name, duration, maxSize, settings);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("Unknown or invalid JFR settings '" + settings + "'",
+                    e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public FlightRecorderService.RecordingInfo stop(@Selector String name) {
+        try {
+            return recorder.stop(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
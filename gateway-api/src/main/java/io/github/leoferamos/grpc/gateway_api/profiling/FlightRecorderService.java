@@ -0,0 +1,216 @@
+package io.github.leoferamos.grpc.gateway_api.profiling;
+
+import io.github.leoferamos.grpc.gateway_api.config.ProfilingProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Owns the gateway's JFR recordings: one continuous recording started at boot and bounded
+ * on-demand recordings started, stopped and dumped through {@link FlightRecorderEndpoint}.
+ *
+ * <p>Every recording is capped in duration/age and size, and dumps are pruned to
+ * {@code gateway.profiling.max-dumps} files, so profiling can be left reachable in production.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightRecorderService {
+
+    public static final String CONTINUOUS = "continuous";
+
+    /** Recording names become dump file names, so they are limited to a safe file name alphabet. */
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final DateTimeFormatter DUMP_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final ProfilingProperties properties;
+    private final Map<String, Recording> recordings = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void startContinuous() {
+        ProfilingProperties.Continuous continuous = properties.getContinuous();
+        if (!continuous.isEnabled()) {
+            return;
+        }
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(continuous.getSettings()));
+            recording.setName(CONTINUOUS);
+            recording.setToDisk(true);
+            recording.setMaxAge(continuous.getMaxAge());
+            recording.setMaxSize(continuous.getMaxSize().toBytes());
+            recording.enable(OrderStageEvent.class).withThreshold(continuous.getStageThreshold());
+            recording.start();
+            synchronized (this) {
+                recordings.put(CONTINUOUS, recording);
+            }
+            log.info("Continuous JFR recording started (settings={}, maxAge={}, maxSize={})",
+                    continuous.getSettings(), continuous.getMaxAge(), continuous.getMaxSize());
+        } catch (IOException | ParseException e) {
+            log.warn("Continuous JFR recording not started: {}", e.getMessage());
+        }
+    }
+
+    public synchronized List<RecordingInfo> list() {
+        return recordings.values().stream().map(RecordingInfo::of).toList();
+    }
+
+    /**
+     * Starts an on-demand recording. Duration and size are clamped to the configured maximums;
+     * the recording stops by itself when the duration elapses.
+     */
+    public synchronized RecordingInfo start(String name, Duration duration, DataSize maxSize, String settings)
+            throws IOException, ParseException {
+        checkName(name);
+        if (CONTINUOUS.equals(name)) {
+            throw new IllegalArgumentException("'" + CONTINUOUS + "' is reserved for the always-on recording");
+        }
+        ProfilingProperties.OnDemand onDemand = properties.getOnDemand();
+        Recording previous = recordings.remove(name);
+        if (previous != null) {
+            previous.close();
+        }
+        evictStopped(onDemand.getMaxRecordings() - 1);
+        if (onDemandCount() >= onDemand.getMaxRecordings()) {
+            throw new IllegalStateException("Already running " + onDemandCount() + " on-demand recording(s)");
+        }
+
+        Duration boundedDuration = duration == null || duration.compareTo(onDemand.getMaxDuration()) > 0
+                ? onDemand.getMaxDuration() : duration;
+        DataSize boundedSize = maxSize == null || maxSize.compareTo(onDemand.getMaxSize()) > 0
+                ? onDemand.getMaxSize() : maxSize;
+        Recording recording = new Recording(Configuration.getConfiguration(
+                settings == null ? onDemand.getSettings() : settings));
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setDuration(boundedDuration);
+        recording.setMaxSize(boundedSize.toBytes());
+        recording.enable(OrderStageEvent.class).withThreshold(Duration.ZERO);
+        recording.start();
+        recordings.put(name, recording);
+        log.info("JFR recording '{}' started (duration={}, maxSize={})", name, boundedDuration, boundedSize);
+        return RecordingInfo.of(recording);
+    }
+
+    /**
+     * Stops a recording; its data is kept for {@link #dump} until a newer recording evicts it.
+     */
+    public synchronized RecordingInfo stop(String name) {
+        checkName(name);
+        if (CONTINUOUS.equals(name)) {
+            throw new IllegalArgumentException("The always-on recording is controlled by gateway.profiling.continuous");
+        }
+        Recording recording = recordings.get(name);
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR recording '{}' stopped", name);
+        }
+        return RecordingInfo.of(recording);
+    }
+
+    /**
+     * Writes the recording's current contents to a new file in the dump directory.
+     *
+     * @return the dump file, or null if there is no such recording
+     */
+    public synchronized Path dump(String name) throws IOException {
+        checkName(name);
+        Recording recording = recordings.get(name);
+        if (recording == null) {
+            return null;
+        }
+        Path directory = properties.getDumpDirectory();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + "-" + DUMP_TIMESTAMP.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        pruneDumps(directory);
+        log.info("JFR recording '{}' dumped to {} ({} bytes)", name, file, Files.size(file));
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    private static void checkName(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Recording names may only contain letters, digits, '_' and '-'");
+        }
+    }
+
+    private long onDemandCount() {
+        return recordings.keySet().stream().filter(n -> !CONTINUOUS.equals(n)).count();
+    }
+
+    /** Closes the oldest stopped on-demand recordings until at most {@code keep} on-demand ones remain. */
+    private void evictStopped(int keep) {
+        List<String> stopped = new ArrayList<>();
+        recordings.forEach((n, r) -> {
+            if (!CONTINUOUS.equals(n) && r.getState() != RecordingState.RUNNING
+                    && r.getState() != RecordingState.DELAYED) {
+                stopped.add(n);
+            }
+        });
+        for (String n : stopped) {
+            if (onDemandCount() <= keep) {
+                break;
+            }
+            recordings.remove(n).close();
+        }
+    }
+
+    private void pruneDumps(Path directory) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(p -> p.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparingLong(FlightRecorderService::lastModified).reversed())
+                    .toList();
+        }
+        for (Path old : dumps.subList(Math.min(properties.getMaxDumps(), dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public record RecordingInfo(String name, String state, Instant startTime, Duration duration,
+                                Duration maxAge, long maxSizeBytes, long sizeBytes) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getName(), recording.getState().name(), recording.getStartTime(),
+                    recording.getDuration(), recording.getMaxAge(), recording.getMaxSize(), recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.leoferamos.grpc.gateway_api.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one stage of an order request in the gateway (an order-service call, the
+ * payment, a notification, ...). The event duration is the stage's wall-clock time.
+ *
+ * <pre>
+ * OrderStageEvent stage = OrderStageEvent.start(OrderStageEvent.CREATE_ORDER, "payment");
+ * ...
+ * stage.finish(orderId, "APPROVED");
+ * </pre>
+ *
+ * When no recording has the event enabled, {@code start} and {@code finish} only cost a check.
+ */
+@Name("io.github.leoferamos.gateway.OrderStage")
+@Label("Order Stage")
+@Category({"Food Delivery", "Gateway"})
+@Description("One stage of a gateway order request")
+@StackTrace(false)
+public class OrderStageEvent extends Event {
+
+    public static final String CREATE_ORDER = "createOrder";
+    public static final String GET_ORDER_STATUS = "getOrderStatus";
+    public static final String FOLLOW_UP = "followUp";
+
+    @Label("Order Id")
+    String orderId;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+
+    /** Set while the stage is open; stays false when the event was disabled at start. */
+    private transient boolean open;
+
+    public static OrderStageEvent start(String operation, String stage) {
+        OrderStageEvent event = new OrderStageEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.stage = stage;
+            event.open = true;
+            event.begin();
+        }
+        return event;
+    }
+
+    /** Ends the stage; only the first call per event counts. */
+    public void finish(String orderId, String outcome) {
+        if (!open) {
+            return;
+        }
+        open = false;
+        end();
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.leoferamos.grpc.gateway_api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * One {@link TokenBucket} per key, held in a size-bounded Caffeine cache so the number of
+ * distinct keys (customers, restaurants) cannot grow the heap without bound. An evicted
+ * bucket is simply recreated full, which is the state an idle bucket converges to anyway.
+ */
+public class KeyedRateLimiter {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+
+    public KeyedRateLimiter(double permitsPerSecond, int burst, long maxKeys, Duration idleExpiry) {
+        this(permitsPerSecond, burst, maxKeys, idleExpiry, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param ticker   clock for idle expiry
+     * @param executor runs the cache's eviction work
+     */
+    KeyedRateLimiter(double permitsPerSecond, int burst, long maxKeys, Duration idleExpiry,
+                     Ticker ticker, Executor executor) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .ticker(ticker)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * @return 0 if the call is admitted, otherwise the nanoseconds until a permit frees up
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        Objects.requireNonNull(key, "key");
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(permitsPerSecond, burst));
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    /**
+     * Return a permit taken by {@link #tryAcquire} for a call that was rejected further on.
+     */
+    public void refund(String key) {
+        TokenBucket bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+}
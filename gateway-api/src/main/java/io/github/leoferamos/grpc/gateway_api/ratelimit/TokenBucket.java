@@ -0,0 +1,50 @@
+package io.github.leoferamos.grpc.gateway_api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as GCRA (generic cell rate algorithm).
+ * The whole bucket state is a single "theoretical arrival time" updated with CAS,
+ * so there is no refill thread and the wait until the next permit falls out directly.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Try to take one permit.
+     *
+     * @return 0 if the permit was granted, otherwise the nanoseconds to wait before retrying
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE || tat - nowNanos < 0 ? nowNanos : tat;
+            long newTat = base + emissionIntervalNanos;
+            long excess = newTat - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Give back a permit granted by {@link #tryAcquire} that ended up unused.
+     */
+    public void refund() {
+        theoreticalArrival.getAndAdd(-emissionIntervalNanos);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.leoferamos.grpc.gateway_api.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistent-hash ring with virtual nodes. Each node is placed on the ring {@code virtualNodes}
+ * times, so keys spread evenly and adding or removing a node only moves roughly 1/N of them.
+ *
+ * <p>The ring is an immutable snapshot (sorted hash array plus owner array) published through
+ * a volatile field: lookups are a lock-free binary search, adding a node rebuilds it. Shard
+ * membership is fixed at startup, so nodes are never removed: a restaurant's orders stay on one
+ * order-service node even while its channel reconnects.
+ */
+public class ConsistentHashRing<T> {
+
+    private final int virtualNodes;
+    private final Map<String, T> nodes = new LinkedHashMap<>();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(new long[0], List.of());
+
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be >= 1");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    public synchronized void addNode(String name, T node) {
+        nodes.put(name, node);
+        rebuild();
+    }
+
+    public synchronized Map<String, T> nodes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+    }
+
+    /**
+     * @return the node owning {@code key}, or null if the ring is empty
+     */
+    public T route(String key) {
+        Snapshot<T> s = snapshot;
+        if (s.hashes.length == 0) {
+            return null;
+        }
+        long h = hash(key == null ? "" : key);
+        int idx = Arrays.binarySearch(s.hashes, h);
+        if (idx < 0) {
+            idx = -idx - 1;
+            if (idx == s.hashes.length) {
+                idx = 0;
+            }
+        }
+        return s.owners.get(idx);
+    }
+
+    private void rebuild() {
+        int size = nodes.size() * virtualNodes;
+        long[][] points = new long[size][];
+        List<T> byIndex = new ArrayList<>(nodes.values());
+        int i = 0;
+        int nodeIndex = 0;
+        for (String name : nodes.keySet()) {
+            for (int v = 0; v < virtualNodes; v++) {
+                points[i++] = new long[] {hash(name + "#" + v), nodeIndex};
+            }
+            nodeIndex++;
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        long[] hashes = new long[size];
+        List<T> owners = new ArrayList<>(size);
+        for (int p = 0; p < size; p++) {
+            hashes[p] = points[p][0];
+            owners.add(byIndex.get((int) points[p][1]));
+        }
+        this.snapshot = new Snapshot<>(hashes, owners);
+    }
+
+    /** 64-bit FNV-1a over UTF-8 bytes followed by the murmur3 finalizer for avalanche. */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Snapshot<T>(long[] hashes, List<T> owners) {
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import io.github.leoferamos.grpc.driver.AssignDriverResponse;
+import io.github.leoferamos.grpc.driver.AssignmentStatus;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One follow-up AssignDriver attempt for a PENDING_DRIVER order; true once the order has a driver.
+ *
+ * <p>Driver availability only saves calls until driver-service has seen the order. After that,
+ * batch dispatch keeps the order pending and may match it at any time, and that match is what
+ * takes the driver out of availability, so every later attempt re-submits to collect it.
+ */
+final class DriverAssignmentRetry implements BooleanSupplier {
+
+    private final BooleanSupplier mayHaveDriver;
+    private final Supplier<AssignDriverResponse> assign;
+    private final Consumer<AssignDriverResponse> onAssigned;
+    private volatile boolean submitted;
+
+    /**
+     * @param submitted     whether createOrder already sent AssignDriver for the order
+     * @param mayHaveDriver false when a fresh availability snapshot says no driver is free
+     */
+    DriverAssignmentRetry(boolean submitted, BooleanSupplier mayHaveDriver, Supplier<AssignDriverResponse> assign,
+                          Consumer<AssignDriverResponse> onAssigned) {
+        this.submitted = submitted;
+        this.mayHaveDriver = mayHaveDriver;
+        this.assign = assign;
+        this.onAssigned = onAssigned;
+    }
+
+    @Override
+    public boolean getAsBoolean() {
+        if (!submitted && !mayHaveDriver.getAsBoolean()) {
+            return false;
+        }
+        // A call that fails may still have reached driver-service
+        submitted = true;
+        AssignDriverResponse response = assign.get();
+        if (WireStatus.assignmentStatusOf(response) != AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED) {
+            return false;
+        }
+        onAssigned.accept(response);
+        return true;
+    }
+}
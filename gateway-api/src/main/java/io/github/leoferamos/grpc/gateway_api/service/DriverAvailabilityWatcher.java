@@ -0,0 +1,126 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import io.github.leoferamos.grpc.driver.AvailabilityUpdate;
+import io.github.leoferamos.grpc.driver.DriverServiceGrpc;
+import io.github.leoferamos.grpc.driver.RegionAvailability;
+import io.github.leoferamos.grpc.driver.WatchAvailabilityRequest;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a local copy of driver availability fed by DriverService.WatchAvailability, so the
+ * gateway can skip AssignDriver calls that are bound to return NO_DRIVERS_AVAILABLE.
+ *
+ * <p>The view fails open: until a snapshot arrives, or once it is older than
+ * {@code maxStaleness} (driver-service heartbeats every few seconds), every assignment is
+ * attempted as before.
+ */
+@Slf4j
+class DriverAvailabilityWatcher {
+
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final DriverServiceGrpc.DriverServiceStub stub;
+    private final long maxStalenessMillis;
+    private final boolean matchByCell;
+    private final ScheduledExecutorService reconnector = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "driver-availability-watch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stopped;
+    private volatile long reconnectDelayMs = 500;
+
+    DriverAvailabilityWatcher(DriverServiceGrpc.DriverServiceStub stub, Duration maxStaleness, boolean matchByCell) {
+        this.stub = stub;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.matchByCell = matchByCell;
+    }
+
+    void start() {
+        reconnector.execute(this::watch);
+    }
+
+    void stop() {
+        stopped = true;
+        reconnector.shutdownNow();
+    }
+
+    /**
+     * @return false only if a fresh snapshot says no driver can take an order at this pickup point
+     */
+    boolean mayHaveDriver(double latitude, double longitude) {
+        Snapshot s = snapshot;
+        if (s == null || System.currentTimeMillis() - s.receivedAt() > maxStalenessMillis) {
+            return true;
+        }
+        if (!matchByCell || s.cellSizeDegrees() <= 0) {
+            return s.totalAvailable() > 0;
+        }
+        return s.byCell().getOrDefault(geoCell(latitude, longitude, s.cellSizeDegrees()), 0) > 0;
+    }
+
+    /** Same cell id scheme as driver-service: "floor(lat / size):floor(lon / size)". */
+    static String geoCell(double latitude, double longitude, double cellSizeDegrees) {
+        return (long) Math.floor(latitude / cellSizeDegrees) + ":" + (long) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private void watch() {
+        if (stopped) {
+            return;
+        }
+        stub.watchAvailability(WatchAvailabilityRequest.getDefaultInstance(), new StreamObserver<>() {
+            @Override
+            public void onNext(AvailabilityUpdate update) {
+                Map<String, Integer> byCell = new HashMap<>(update.getRegionsCount() * 2);
+                for (RegionAvailability region : update.getRegionsList()) {
+                    byCell.put(region.getRegion(), region.getAvailableDrivers());
+                }
+                Snapshot previous = snapshot;
+                snapshot = new Snapshot(update.getTotalAvailable(), update.getCellSizeDegrees(), byCell,
+                        System.currentTimeMillis());
+                reconnectDelayMs = 500;
+                if (previous == null || previous.totalAvailable() != update.getTotalAvailable()) {
+                    log.info("Driver availability: {} available across {} cell(s)",
+                            update.getTotalAvailable(), byCell.size());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Driver availability watch failed: {}", t.getMessage());
+                scheduleReconnect();
+            }
+
+            @Override
+            public void onCompleted() {
+                log.info("Driver availability watch completed by server");
+                scheduleReconnect();
+            }
+        });
+    }
+
+    private void scheduleReconnect() {
+        if (stopped) {
+            return;
+        }
+        long delay = reconnectDelayMs;
+        reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+        try {
+            reconnector.schedule(this::watch, delay, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.debug("Driver availability reconnect not scheduled: {}", e.getMessage());
+        }
+    }
+
+    private record Snapshot(int totalAvailable, double cellSizeDegrees, Map<String, Integer> byCell, long receivedAt) {
+    }
+}
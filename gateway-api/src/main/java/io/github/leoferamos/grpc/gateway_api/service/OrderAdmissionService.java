@@ -0,0 +1,113 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import io.github.leoferamos.grpc.gateway_api.config.RateLimitProperties;
+import io.github.leoferamos.grpc.gateway_api.ratelimit.KeyedRateLimiter;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admission control for order creation: a global in-flight limit plus token buckets
+ * keyed by customer and by restaurant. Rejections are cheap and never block.
+ */
+@Slf4j
+@Service
+public class OrderAdmissionService {
+
+    private final boolean enabled;
+    private final Semaphore inFlight;
+    private final KeyedRateLimiter customerLimiter;
+    private final KeyedRateLimiter restaurantLimiter;
+
+    public OrderAdmissionService(RateLimitProperties props) {
+        this.enabled = props.isEnabled();
+        this.inFlight = new Semaphore(props.getMaxConcurrentOrders());
+        this.customerLimiter = new KeyedRateLimiter(props.getCustomer().getPermitsPerSecond(),
+                props.getCustomer().getBurst(), props.getMaxTrackedKeys(), props.getIdleExpiry());
+        this.restaurantLimiter = new KeyedRateLimiter(props.getRestaurant().getPermitsPerSecond(),
+                props.getRestaurant().getBurst(), props.getMaxTrackedKeys(), props.getIdleExpiry());
+        log.info("Order admission control enabled={} maxConcurrent={} customer={}/s burst {} restaurant={}/s burst {}",
+                enabled, props.getMaxConcurrentOrders(),
+                props.getCustomer().getPermitsPerSecond(), props.getCustomer().getBurst(),
+                props.getRestaurant().getPermitsPerSecond(), props.getRestaurant().getBurst());
+    }
+
+    /**
+     * Try to admit a createOrder call. On success the returned permit must be closed
+     * once the call completes so the concurrency slot is returned. A call is only charged
+     * to the customer's bucket if the restaurant's bucket admits it too.
+     *
+     * @throws IllegalArgumentException if either id is missing; callers reject those up front
+     */
+    public Admission tryAdmit(String customerId, String restaurantId) {
+        if (customerId == null || customerId.isBlank() || restaurantId == null || restaurantId.isBlank()) {
+            throw new IllegalArgumentException("customerId and restaurantId are required");
+        }
+        if (!enabled) {
+            return Admission.granted(null);
+        }
+        if (!inFlight.tryAcquire()) {
+            return Admission.rejected("Too many orders in flight", 1);
+        }
+        long now = System.nanoTime();
+        long wait = customerLimiter.tryAcquire(customerId, now);
+        if (wait > 0) {
+            inFlight.release();
+            return Admission.rejected("Rate limit exceeded for customer " + customerId, toRetryAfterSeconds(wait));
+        }
+        wait = restaurantLimiter.tryAcquire(restaurantId, now);
+        if (wait > 0) {
+            customerLimiter.refund(customerId);
+            inFlight.release();
+            return Admission.rejected("Rate limit exceeded for restaurant " + restaurantId, toRetryAfterSeconds(wait));
+        }
+        return Admission.granted(inFlight);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public static final class Admission implements AutoCloseable {
+        private final boolean granted;
+        private final String reason;
+        private final long retryAfterSeconds;
+        private Semaphore slot;
+
+        private Admission(boolean granted, String reason, long retryAfterSeconds, Semaphore slot) {
+            this.granted = granted;
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.slot = slot;
+        }
+
+        static Admission granted(Semaphore slot) {
+            return new Admission(true, null, 0, slot);
+        }
+
+        static Admission rejected(String reason, long retryAfterSeconds) {
+            return new Admission(false, reason, retryAfterSeconds, null);
+        }
+
+        public boolean isGranted() {
+            return granted;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        @Override
+        public void close() {
+            if (slot != null) {
+                slot.release();
+                slot = null;
+            }
+        }
+    }
+}
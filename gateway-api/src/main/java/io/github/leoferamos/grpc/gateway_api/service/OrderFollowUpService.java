@@ -0,0 +1,264 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import io.github.leoferamos.grpc.gateway_api.config.FollowUpProperties;
+import io.github.leoferamos.grpc.gateway_api.timer.HashedTimingWheel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deferred work for orders createOrder left unfinished, driven by a {@link HashedTimingWheel}:
+ * driver assignment retried with exponential backoff, payment reviews that time out, and a
+ * stale deadline after which an order's timers are dropped. One order has at most one
+ * follow-up; registering a new one replaces the old.
+ *
+ * <p>Timers only decide when; the gRPC calls and notifications they trigger run on a small
+ * bounded worker pool so a slow service never holds up the wheel.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderFollowUpService {
+
+    static final String DRIVER_RETRY = "driver-retry";
+    static final String PAYMENT_REVIEW = "payment-review";
+
+    private final FollowUpProperties props;
+    private final MeterRegistry registry;
+
+    private final Map<String, FollowUp> followUps = new ConcurrentHashMap<>();
+    private HashedTimingWheel wheel;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void init() {
+        if (!props.isEnabled()) {
+            log.info("Order follow-ups disabled");
+            return;
+        }
+        Timer lag = Timer.builder("gateway.timers.lag")
+                .description("How late follow-up timers fired")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.wheel = new HashedTimingWheel("order-follow-up-timer", props.getTick().toNanos(), TimeUnit.NANOSECONDS,
+                props.getTicksPerWheel(), props.getMaxPendingTimers(), nanos -> lag.record(nanos, TimeUnit.NANOSECONDS));
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(props.getWorkerThreads(), props.getWorkerThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.getMaxQueuedActions()), r -> {
+                    Thread t = new Thread(r, "order-follow-up-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("gateway.timers.pending", wheel, HashedTimingWheel::pending)
+                .description("Follow-up timers waiting to fire")
+                .register(registry);
+        FunctionCounter.builder("gateway.timers.expired", wheel, HashedTimingWheel::expiredCount)
+                .register(registry);
+        FunctionCounter.builder("gateway.timers.cancelled", wheel, HashedTimingWheel::cancelledCount)
+                .register(registry);
+        Gauge.builder("gateway.followup.orders", followUps, Map::size)
+                .description("Orders with a follow-up outstanding")
+                .register(registry);
+        Gauge.builder("gateway.followup.queued", workers, w -> w.getQueue().size())
+                .description("Fired follow-ups waiting for a worker")
+                .register(registry);
+
+        log.info("Order follow-ups enabled: tick {} x {} buckets, {} worker(s), driver retry {}..{}, "
+                        + "payment review timeout {}, stale after {}",
+                props.getTick(), props.getTicksPerWheel(), props.getWorkerThreads(),
+                props.getDriverRetry().getInitialBackoff(), props.getDriverRetry().getMaxBackoff(),
+                props.getPaymentReviewTimeout(), props.getStaleOrderAfter());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (wheel != null) {
+            wheel.close();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return wheel != null;
+    }
+
+    public Duration driverCallTimeout() {
+        return props.getDriverRetry().getCallTimeout();
+    }
+
+    /**
+     * Calls {@code assign} with backoff until it returns true. If the order is still without a
+     * driver after {@code stale-order-after}, the retries stop and {@code onStale} runs.
+     */
+    public void retryDriverAssignment(String orderId, BooleanSupplier assign, Runnable onStale) {
+        if (!isEnabled()) {
+            return;
+        }
+        FollowUp followUp = new FollowUp(orderId, DRIVER_RETRY);
+        if (track(followUp, props.getStaleOrderAfter(), "stale", onStale)) {
+            scheduleRetry(followUp, assign);
+        }
+    }
+
+    /** Runs {@code onTimeout} after {@code payment-review-timeout}, unless a newer follow-up for the order replaced this one. */
+    public void expirePaymentReview(String orderId, Runnable onTimeout) {
+        if (!isEnabled()) {
+            return;
+        }
+        track(new FollowUp(orderId, PAYMENT_REVIEW), props.getPaymentReviewTimeout(), "timed-out", onTimeout);
+    }
+
+    /** Registers the follow-up with its final deadline; false if the wheel refused the timer. */
+    private boolean track(FollowUp followUp, Duration deadline, String deadlineOutcome, Runnable onDeadline) {
+        FollowUp previous = followUps.put(followUp.orderId, followUp);
+        if (previous != null && previous.finish()) {
+            count(previous.kind, "replaced");
+        }
+        try {
+            followUp.deadline = wheel.schedule(() -> {
+                if (followUp.finish()) {
+                    count(followUp.kind, deadlineOutcome);
+                    log.info("Follow-up {} for order {} {} after {}", followUp.kind, followUp.orderId,
+                            deadlineOutcome, deadline);
+                    submit(followUp, onDeadline);
+                }
+            }, deadline.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            followUps.remove(followUp.orderId, followUp);
+            count(followUp.kind, "refused");
+            log.warn("Follow-up {} for order {} not scheduled: {}", followUp.kind, followUp.orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void scheduleRetry(FollowUp followUp, BooleanSupplier assign) {
+        long delay = backoffNanos(followUp.attempts);
+        try {
+            HashedTimingWheel.Timeout next = wheel.schedule(() -> {
+                if (followUp.done.get()) {
+                    return;
+                }
+                try {
+                    workers.execute(() -> attempt(followUp, assign));
+                } catch (RejectedExecutionException e) {
+                    // Workers saturated: push this retry back rather than queue without bound
+                    count(followUp.kind, "deferred");
+                    followUp.attempts++;
+                    scheduleRetry(followUp, assign);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+            followUp.next = next;
+            if (followUp.done.get()) {
+                next.cancel();
+            }
+        } catch (RejectedExecutionException e) {
+            // The stale deadline still cleans the order up
+            log.warn("Driver retry for order {} not scheduled: {}", followUp.orderId, e.getMessage());
+        }
+    }
+
+    private void attempt(FollowUp followUp, BooleanSupplier assign) {
+        if (followUp.done.get()) {
+            return;
+        }
+        boolean assigned;
+        try {
+            assigned = assign.getAsBoolean();
+        } catch (Exception e) {
+            log.warn("Driver retry for order {} failed: {}", followUp.orderId, e.getMessage());
+            assigned = false;
+        }
+        followUp.attempts++;
+        if (assigned) {
+            if (followUp.finish()) {
+                count(followUp.kind, "assigned");
+                log.info("Driver assigned to order {} after {} attempt(s)", followUp.orderId, followUp.attempts);
+            }
+            return;
+        }
+        count(followUp.kind, "retried");
+        if (!followUp.done.get()) {
+            scheduleRetry(followUp, assign);
+        }
+    }
+
+    private void submit(FollowUp followUp, Runnable action) {
+        try {
+            workers.execute(() -> {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    log.warn("Follow-up {} for order {} failed: {}", followUp.kind, followUp.orderId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            count(followUp.kind, "dropped");
+            log.warn("Follow-up {} for order {} dropped: workers saturated", followUp.kind, followUp.orderId);
+        }
+    }
+
+    private long backoffNanos(int attempts) {
+        FollowUpProperties.DriverRetry retry = props.getDriverRetry();
+        double base = retry.getInitialBackoff().toNanos() * Math.pow(retry.getMultiplier(), attempts);
+        double capped = Math.min(base, retry.getMaxBackoff().toNanos());
+        double spread = 1 + retry.getJitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return (long) (capped * spread);
+    }
+
+    private void count(String kind, String outcome) {
+        registry.counter("gateway.followup.outcomes", "kind", kind, "outcome", outcome).increment();
+    }
+
+    private final class FollowUp {
+
+        final String orderId;
+        final String kind;
+        final AtomicBoolean done = new AtomicBoolean();
+        volatile HashedTimingWheel.Timeout deadline;
+        volatile HashedTimingWheel.Timeout next;
+        /** Retries run one after another, so no two threads update this at once. */
+        volatile int attempts;
+
+        FollowUp(String orderId, String kind) {
+            this.orderId = orderId;
+            this.kind = kind;
+        }
+
+        /** Ends the follow-up and cancels its timers; true only for the first caller. */
+        boolean finish() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            followUps.remove(orderId, this);
+            if (next != null) {
+                next.cancel();
+            }
+            if (deadline != null) {
+                deadline.cancel();
+            }
+            return true;
+        }
+    }
+}
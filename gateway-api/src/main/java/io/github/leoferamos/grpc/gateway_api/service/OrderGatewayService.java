@@ -1,18 +1,28 @@
 package io.github.leoferamos.grpc.gateway_api.service;
 
+import io.github.leoferamos.grpc.gateway_api.config.GrpcClientTransportProperties;
 import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderRequest;
 import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderResponse;
+import io.github.leoferamos.grpc.gateway_api.marshalling.PooledMarshalling;
+import io.github.leoferamos.grpc.gateway_api.profiling.OrderStageEvent;
+import io.github.leoferamos.grpc.gateway_api.routing.ConsistentHashRing;
 import io.github.leoferamos.grpc.order.OrderRequest;
 import io.github.leoferamos.grpc.order.OrderResponse;
 import io.github.leoferamos.grpc.order.OrderServiceGrpc;
 import io.github.leoferamos.grpc.driver.AssignDriverRequest;
 import io.github.leoferamos.grpc.driver.AssignDriverResponse;
+import io.github.leoferamos.grpc.driver.AssignmentStatus;
+import io.github.leoferamos.grpc.driver.CancelAssignmentRequest;
+import io.github.leoferamos.grpc.driver.CancelAssignmentResponse;
 import io.github.leoferamos.grpc.driver.DriverServiceGrpc;
 import io.github.leoferamos.grpc.driver.Location;
+import io.github.leoferamos.grpc.payment.PaymentMethod;
 import io.github.leoferamos.grpc.payment.PaymentRequest;
 import io.github.leoferamos.grpc.payment.PaymentResponse;
 import io.github.leoferamos.grpc.payment.PaymentServiceGrpc;
+import io.github.leoferamos.grpc.payment.PaymentStatus;
 import io.github.leoferamos.grpc.notification.NotificationServiceGrpc;
+import io.github.leoferamos.grpc.notification.OrderEvent;
 import io.github.leoferamos.grpc.notification.OrderUpdate;
 import io.github.leoferamos.grpc.notification.SubscribeRequest;
 import io.github.leoferamos.grpc.notification.NotificationMessage;
@@ -20,21 +30,36 @@ import io.grpc.ManagedChannel;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import java.io.File;
+import java.time.Duration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class OrderGatewayService {
 
+    private final GrpcClientTransportProperties transport;
+    private final OrderFollowUpService followUps;
+    private final PooledMarshalling marshalling;
+
     @Value("${grpc.client.order-service.address:static://localhost:9090}")
     private String orderServiceAddress;
 
+    /** Order-service replicas (host:port) to shard across; when empty the single address above is used. */
+    @Value("${grpc.client.order-service.shards:}")
+    private List<String> orderServiceShards;
+
+    @Value("${grpc.client.order-service.virtual-nodes:160}")
+    private int orderServiceVirtualNodes;
+
     @Value("${grpc.client.payment-service.address:static://localhost:9091}")
     private String paymentServiceAddress;
 
@@ -44,14 +69,27 @@ public class OrderGatewayService {
     @Value("${grpc.client.notification-service.address:static://localhost:9093}")
     private String notificationServiceAddress;
 
-    private ManagedChannel orderChannel;
-    private OrderServiceGrpc.OrderServiceBlockingStub orderStub;
+    /** Keep filling the pre-enum string fields until every service reads status_code. */
+    @Value("${grpc.wire.legacy-status-strings:true}")
+    private boolean legacyStatusStrings;
+
+    @Value("${gateway.driver-availability.enabled:true}")
+    private boolean driverAvailabilityEnabled;
+
+    @Value("${gateway.driver-availability.max-staleness:15s}")
+    private Duration driverAvailabilityMaxStaleness;
+
+    @Value("${gateway.driver-availability.match-by-cell:false}")
+    private boolean driverAvailabilityMatchByCell;
+
+    private ConsistentHashRing<OrderShard> orderRing;
 
     private ManagedChannel paymentChannel;
     private PaymentServiceGrpc.PaymentServiceBlockingStub paymentStub;
 
     private ManagedChannel driverChannel;
     private DriverServiceGrpc.DriverServiceBlockingStub driverStub;
+    private DriverAvailabilityWatcher driverAvailability;
 
     private ManagedChannel notificationChannel;
     private NotificationServiceGrpc.NotificationServiceBlockingStub notificationStub;
@@ -83,15 +121,26 @@ public class OrderGatewayService {
                 throw new IllegalStateException("TLS certificates not found in " + certsDir);
             }
 
-            this.orderChannel = NettyChannelBuilder.forTarget(target)
-                .overrideAuthority("order-service")
-                .sslContext(GrpcSslContexts.forClient()
-                    .trustManager(trustCertCollection)
-                    .keyManager(clientCertChain, clientPrivateKey)
-                    .build())
-                .build();
-            this.orderStub = OrderServiceGrpc.newBlockingStub(orderChannel);
-            log.info("gRPC client initialized with mTLS to OrderService");
+            List<String> shardTargets = orderServiceShards == null ? List.of()
+                : orderServiceShards.stream().map(String::trim).filter(t -> !t.isEmpty())
+                    .map(t -> t.startsWith("static://") ? t.substring("static://".length()) : t)
+                    .toList();
+            if (shardTargets.isEmpty()) {
+                shardTargets = List.of(target);
+            }
+            this.orderRing = new ConsistentHashRing<>(orderServiceVirtualNodes);
+            for (String shardTarget : shardTargets) {
+                ManagedChannel channel = tuned(NettyChannelBuilder.forTarget(shardTarget))
+                    .overrideAuthority("order-service")
+                    .sslContext(GrpcSslContexts.forClient()
+                        .trustManager(trustCertCollection)
+                        .keyManager(clientCertChain, clientPrivateKey)
+                        .build())
+                    .build();
+                orderRing.addNode(shardTarget, new OrderShard(shardTarget, channel, OrderServiceGrpc.newBlockingStub(channel)));
+            }
+            log.info("gRPC client initialized with mTLS to OrderService ({} shard(s): {})",
+                shardTargets.size(), shardTargets);
 
             // Initialize Payment Service client
             String paymentTarget;
@@ -105,7 +154,7 @@ public class OrderGatewayService {
             }
             log.info("Connecting to PaymentService at {} with TLS", paymentTarget);
 
-            this.paymentChannel = NettyChannelBuilder.forTarget(paymentTarget)
+            this.paymentChannel = tuned(NettyChannelBuilder.forTarget(paymentTarget))
                 .overrideAuthority("payment-service")
                 .sslContext(GrpcSslContexts.forClient()
                     .trustManager(trustCertCollection)
@@ -127,7 +176,7 @@ public class OrderGatewayService {
                 }
                 log.info("Connecting to DriverService at {} with TLS", driverTarget);
 
-                this.driverChannel = NettyChannelBuilder.forTarget(driverTarget)
+                this.driverChannel = tuned(NettyChannelBuilder.forTarget(driverTarget))
                     .overrideAuthority("driver-service")
                     .sslContext(GrpcSslContexts.forClient()
                         .trustManager(trustCertCollection)
@@ -136,6 +185,14 @@ public class OrderGatewayService {
                     .build();
                 this.driverStub = DriverServiceGrpc.newBlockingStub(driverChannel);
                 log.info("gRPC client initialized with mTLS to DriverService");
+
+                if (driverAvailabilityEnabled) {
+                    this.driverAvailability = new DriverAvailabilityWatcher(DriverServiceGrpc.newStub(driverChannel),
+                        driverAvailabilityMaxStaleness, driverAvailabilityMatchByCell);
+                    driverAvailability.start();
+                    log.info("Watching driver availability (max staleness {}, match by cell: {})",
+                        driverAvailabilityMaxStaleness, driverAvailabilityMatchByCell);
+                }
             }
 
                 // Initialize Notification Service client with mTLS
@@ -150,7 +207,7 @@ public class OrderGatewayService {
                     }
                     log.info("Connecting to NotificationService at {} with TLS", notificationTarget);
 
-                    this.notificationChannel = NettyChannelBuilder.forTarget(notificationTarget)
+                    this.notificationChannel = tuned(NettyChannelBuilder.forTarget(notificationTarget))
                         .overrideAuthority("notification-service")
                         .sslContext(GrpcSslContexts.forClient()
                             .trustManager(trustCertCollection)
@@ -167,14 +224,34 @@ public class OrderGatewayService {
         }
     }
 
+    private NettyChannelBuilder tuned(NettyChannelBuilder builder) {
+        builder.keepAliveTime(transport.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveTimeout(transport.getKeepAliveTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveWithoutCalls(transport.isKeepAliveWithoutCalls())
+            .idleTimeout(transport.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .maxInboundMessageSize(transport.getMaxInboundMessageSize())
+            .defaultLoadBalancingPolicy(transport.getLoadBalancingPolicy());
+        if (transport.getFlowControlWindow() != null) {
+            builder.flowControlWindow(transport.getFlowControlWindow());
+        } else {
+            builder.initialFlowControlWindow(transport.getInitialFlowControlWindow());
+        }
+        return marshalling.configure(builder);
+    }
+
     @PreDestroy
     public void shutdown() {
-        if (orderChannel != null) {
-            try {
-                orderChannel.shutdownNow();
-                log.info("gRPC channel to OrderService shut down.");
-            } catch (Exception e) {
-                log.warn("Error shutting down OrderService gRPC channel: {}", e.getMessage());
+        if (driverAvailability != null) {
+            driverAvailability.stop();
+        }
+        if (orderRing != null) {
+            for (OrderShard shard : orderRing.nodes().values()) {
+                try {
+                    shard.channel().shutdownNow();
+                    log.info("gRPC channel to OrderService {} shut down.", shard.target());
+                } catch (Exception e) {
+                    log.warn("Error shutting down OrderService gRPC channel {}: {}", shard.target(), e.getMessage());
+                }
             }
         }
         if (paymentChannel != null) {
@@ -204,6 +281,16 @@ public class OrderGatewayService {
     }
 
     public CreateOrderResponse createOrder(CreateOrderRequest request) {
+        long allocated = marshalling.threadAllocatedBytes();
+        try {
+            return placeOrder(request);
+        } finally {
+            marshalling.recordOrderAllocation(allocated);
+        }
+    }
+
+    private CreateOrderResponse placeOrder(CreateOrderRequest request) {
+        OrderStageEvent total = OrderStageEvent.start(OrderStageEvent.CREATE_ORDER, "total");
         String customerId = request.getCustomerId();
         log.info("Processing order for customer: {}", customerId);
 
@@ -216,11 +303,17 @@ public class OrderGatewayService {
             .addAllItems(itemNames)
             .build();
 
+        // Orders are owned by their restaurant's shard, so one order-service node sees all of a restaurant's orders
+        OrderShard shard = orderRing.route(orderReq.getRestaurantId());
         OrderResponse orderResp;
+        OrderStageEvent orderStage = OrderStageEvent.start(OrderStageEvent.CREATE_ORDER, "order-service");
         try {
-            orderResp = orderStub.createOrder(orderReq);
+            orderResp = shard.stub().createOrder(orderReq);
+            orderStage.finish(orderResp.getOrderId(), "OK");
         } catch (Exception e) {
             log.error("Failed to create order via gRPC: {}", e.getMessage());
+            orderStage.finish(null, "ERROR");
+            total.finish(null, "ERROR");
             return CreateOrderResponse.builder()
                 .orderId(null)
                 .status("ERROR")
@@ -230,19 +323,16 @@ public class OrderGatewayService {
                 .build();
         }
         String orderId = orderResp.getOrderId();
-        log.info("Order created with ID: {} (status={})", orderId, orderResp.getStatus());
+        log.info("Order created with ID: {} (status={}) on shard {}", orderId, orderResp.getStatusCode(), shard.target());
 
         // Notify that order was created
         try {
             if (notificationStub != null) {
-                NotificationMessage createdMsg = NotificationMessage.newBuilder()
-                        .setOrderId(orderId)
-                        .setStatus("CREATED")
+                NotificationMessage createdMsg = notification(orderId, OrderEvent.ORDER_EVENT_CREATED)
                         .setTitle("Order Created")
                         .setBody("Order " + orderId + " was created")
-                        .setTimestamp(System.currentTimeMillis())
                         .build();
-                notificationStub.sendNotification(createdMsg);
+                publish(createdMsg);
                 log.info("Sent CREATED notification for order={}", orderId);
             }
         } catch (Exception e) {
@@ -255,32 +345,38 @@ public class OrderGatewayService {
                 .mapToDouble(i -> (i.getPrice() == null ? 0.0 : i.getPrice()) * (i.getQuantity() == null ? 0 : i.getQuantity()))
                 .sum();
 
-        PaymentRequest paymentReq = PaymentRequest.newBuilder()
+        PaymentRequest.Builder paymentReq = PaymentRequest.newBuilder()
             .setOrderId(orderId)
             .setUserId(customerId == null ? "" : customerId)
             .setAmount(totalAmount)
-            .setPaymentMethod("CREDIT_CARD")
-            .build();
+            .setPaymentMethodCode(PaymentMethod.PAYMENT_METHOD_CREDIT_CARD);
+        if (legacyStatusStrings) {
+            paymentReq.setPaymentMethod("CREDIT_CARD");
+        }
 
         PaymentResponse paymentResp;
+        PaymentStatus paymentCode = null;
         String paymentStatus;
+        OrderStageEvent paymentStage = OrderStageEvent.start(OrderStageEvent.CREATE_ORDER, "payment");
         try {
-            paymentResp = paymentStub.processPayment(paymentReq);
-            paymentStatus = paymentResp.getStatus();
+            paymentResp = paymentStub.processPayment(paymentReq.build());
+            paymentCode = WireStatus.paymentStatusOf(paymentResp);
+            paymentStatus = WireStatus.legacyName(paymentCode);
+            paymentStage.finish(orderId, paymentStatus);
             log.info("Payment processed: paymentId={} status={} message='{}'", 
                     paymentResp.getPaymentId(), paymentStatus, paymentResp.getMessage());
+            if (paymentCode == PaymentStatus.PAYMENT_STATUS_PENDING) {
+                followUps.expirePaymentReview(orderId, () -> paymentReviewTimedOut(orderId));
+            }
 
             // Notify payment result
             try {
                 if (notificationStub != null) {
-                    NotificationMessage payMsg = NotificationMessage.newBuilder()
-                            .setOrderId(orderId)
-                            .setStatus(paymentStatus == null ? "UNKNOWN_PAYMENT" : "PAYMENT_" + paymentStatus)
+                    NotificationMessage payMsg = notification(orderId, WireStatus.paymentEvent(paymentCode))
                             .setTitle("Payment " + paymentStatus)
                             .setBody("Payment for order " + orderId + " status: " + paymentStatus)
-                            .setTimestamp(System.currentTimeMillis())
                             .build();
-                    notificationStub.sendNotification(payMsg);
+                    publish(payMsg);
                     log.info("Sent PAYMENT notification for order={} status={}", orderId, paymentStatus);
                 }
             } catch (Exception e) {
@@ -290,16 +386,14 @@ public class OrderGatewayService {
         } catch (Exception e) {
             log.error("Failed to process payment via gRPC: {}", e.getMessage());
             paymentStatus = "FAILED";
+            paymentStage.finish(orderId, "ERROR");
             try {
                 if (notificationStub != null) {
-                    NotificationMessage payFail = NotificationMessage.newBuilder()
-                            .setOrderId(orderId)
-                            .setStatus("PAYMENT_FAILED")
+                    NotificationMessage payFail = notification(orderId, OrderEvent.ORDER_EVENT_PAYMENT_FAILED)
                             .setTitle("Payment Failed")
                             .setBody("Payment processing failed for order " + orderId + ": " + e.getMessage())
-                            .setTimestamp(System.currentTimeMillis())
                             .build();
-                    notificationStub.sendNotification(payFail);
+                    publish(payFail);
                 }
             } catch (Exception ex) {
                 log.warn("Failed to send PAYMENT_FAILED notification for {}: {}", orderId, ex.getMessage());
@@ -309,23 +403,26 @@ public class OrderGatewayService {
         // Driver assignment via DriverService
         CreateOrderResponse.DriverInfo driverInfo = null;
         String orderStatus = "CREATED";
-
-        if ("APPROVED".equalsIgnoreCase(paymentStatus) && driverStub != null) {
+        boolean paymentApproved = paymentCode == PaymentStatus.PAYMENT_STATUS_APPROVED;
+
+        if (paymentApproved && driverStub != null) {
+            OrderStageEvent driverStage = OrderStageEvent.start(OrderStageEvent.CREATE_ORDER, "driver-assignment");
+            double lat = -23.5505;
+            double lon = -46.6333;
+            if (request.getDeliveryAddress() != null) {
+                if (request.getDeliveryAddress().getLatitude() != null) lat = request.getDeliveryAddress().getLatitude();
+                if (request.getDeliveryAddress().getLongitude() != null) lon = request.getDeliveryAddress().getLongitude();
+            }
             try {
-                double lat = -23.5505;
-                double lon = -46.6333;
-                if (request.getDeliveryAddress() != null) {
-                    if (request.getDeliveryAddress().getLatitude() != null) lat = request.getDeliveryAddress().getLatitude();
-                    if (request.getDeliveryAddress().getLongitude() != null) lon = request.getDeliveryAddress().getLongitude();
+                AssignDriverResponse dResp = null;
+                if (driverAvailability != null && !driverAvailability.mayHaveDriver(lat, lon)) {
+                    log.info("Skipping driver assignment for order={}: no drivers available", orderId);
+                    driverStage.finish(orderId, "SKIPPED");
+                } else {
+                    dResp = driverStub.assignDriver(assignDriverRequest(orderId, lat, lon));
+                    driverStage.finish(orderId, WireStatus.assignmentStatusOf(dResp).name());
                 }
-
-                AssignDriverRequest driverReq = AssignDriverRequest.newBuilder()
-                    .setOrderId(orderId)
-                    .setPickupLocation(Location.newBuilder().setLatitude(lat).setLongitude(lon).build())
-                    .build();
-
-                AssignDriverResponse dResp = driverStub.assignDriver(driverReq);
-                if ("ASSIGNED".equalsIgnoreCase(dResp.getStatus())) {
+                if (dResp != null && WireStatus.assignmentStatusOf(dResp) == AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED) {
                     driverInfo = CreateOrderResponse.DriverInfo.builder()
                         .driverId(dResp.getDriverId())
                         .driverName(dResp.getDriverName())
@@ -336,30 +433,25 @@ public class OrderGatewayService {
                     // Notify driver assigned
                     try {
                         if (notificationStub != null) {
-                            NotificationMessage drvMsg = NotificationMessage.newBuilder()
-                                    .setOrderId(orderId)
-                                    .setStatus("DRIVER_ASSIGNED")
+                            NotificationMessage drvMsg = notification(orderId, OrderEvent.ORDER_EVENT_DRIVER_ASSIGNED)
                                     .setTitle("Driver Assigned")
                                     .setBody("Driver " + dResp.getDriverName() + " assigned to order " + orderId)
-                                    .setTimestamp(System.currentTimeMillis())
                                     .build();
-                            notificationStub.sendNotification(drvMsg);
+                            publish(drvMsg);
                         }
                     } catch (Exception e) {
                         log.warn("Failed to send DRIVER_ASSIGNED notification for {}: {}", orderId, e.getMessage());
                     }
                 } else {
                     orderStatus = "PENDING_DRIVER";
+                    followUpDriverAssignment(orderId, lat, lon, dResp != null);
                     try {
                         if (notificationStub != null) {
-                            NotificationMessage pendingMsg = NotificationMessage.newBuilder()
-                                    .setOrderId(orderId)
-                                    .setStatus("PENDING_DRIVER")
+                            NotificationMessage pendingMsg = notification(orderId, OrderEvent.ORDER_EVENT_PENDING_DRIVER)
                                     .setTitle("Driver Pending")
                                     .setBody("No driver assigned yet for order " + orderId)
-                                    .setTimestamp(System.currentTimeMillis())
                                     .build();
-                            notificationStub.sendNotification(pendingMsg);
+                            publish(pendingMsg);
                         }
                     } catch (Exception e) {
                         log.warn("Failed to send PENDING_DRIVER notification for {}: {}", orderId, e.getMessage());
@@ -367,12 +459,15 @@ public class OrderGatewayService {
                 }
             } catch (Exception e) {
                 log.warn("Driver assignment failed: {}", e.getMessage());
+                driverStage.finish(orderId, "ERROR");
                 orderStatus = "PENDING_DRIVER";
+                followUpDriverAssignment(orderId, lat, lon, true);
             }
-        } else if (!"APPROVED".equalsIgnoreCase(paymentStatus)) {
-            orderStatus = "PAYMENT_" + paymentStatus;
+        } else if (!paymentApproved) {
+            orderStatus = WireStatus.legacyName(WireStatus.paymentEvent(paymentCode));
         }
 
+        total.finish(orderId, orderStatus);
         return CreateOrderResponse.builder()
             .orderId(orderId)
             .status(orderStatus)
@@ -396,17 +491,20 @@ public class OrderGatewayService {
                     .build();
         }
 
+        OrderStageEvent stage = OrderStageEvent.start(OrderStageEvent.GET_ORDER_STATUS, "notification-stream");
         try {
             SubscribeRequest req = SubscribeRequest.newBuilder().setOrderId(orderId).build();
             Iterator<OrderUpdate> it = notificationStub.withDeadlineAfter(2, TimeUnit.SECONDS).streamOrderUpdates(req);
             if (it.hasNext()) {
                 OrderUpdate u = it.next();
+                stage.finish(orderId, "OK");
                 return io.github.leoferamos.grpc.gateway_api.dto.OrderStatusResponse.builder()
                         .orderId(u.getOrderId())
-                        .status(u.getStatus())
+                        .status(WireStatus.orderStatusOf(u))
                         .message(u.getMessage())
                         .build();
             } else {
+                stage.finish(orderId, "NO_UPDATES");
                 return io.github.leoferamos.grpc.gateway_api.dto.OrderStatusResponse.builder()
                         .orderId(orderId)
                         .status(null)
@@ -415,6 +513,7 @@ public class OrderGatewayService {
             }
         } catch (Exception e) {
             log.warn("Failed to fetch order status for {}: {}", orderId, e.getMessage());
+            stage.finish(orderId, "ERROR");
             return io.github.leoferamos.grpc.gateway_api.dto.OrderStatusResponse.builder()
                     .orderId(orderId)
                     .status(null)
@@ -432,12 +531,9 @@ public class OrderGatewayService {
             return;
         }
         try {
-            NotificationMessage msg = NotificationMessage.newBuilder()
-                    .setOrderId(orderId == null ? "" : orderId)
-                    .setStatus(status == null ? "" : status)
+            NotificationMessage msg = notification(orderId == null ? "" : orderId, orderEventOf(status))
                     .setTitle(title == null ? "" : title)
                     .setBody(body == null ? "" : body)
-                    .setTimestamp(System.currentTimeMillis())
                     .build();
             notificationStub.sendNotification(msg);
             log.info("Sent manual notification for order={} status={}", orderId, status);
@@ -445,4 +541,131 @@ public class OrderGatewayService {
             log.warn("Failed to send manual notification for {}: {}", orderId, e.getMessage());
         }
     }
+
+    /**
+     * Keeps trying to assign a driver to a PENDING_DRIVER order in the background. With batch
+     * dispatch in driver-service a re-submitted order also picks up a match made in a later batch;
+     * an order given up as stale is cancelled there, so a driver matched to it meanwhile is freed.
+     *
+     * @param submitted whether createOrder's AssignDriver call was sent rather than skipped
+     */
+    private void followUpDriverAssignment(String orderId, double lat, double lon, boolean submitted) {
+        DriverAssignmentRetry retry = new DriverAssignmentRetry(submitted,
+                () -> driverAvailability == null || driverAvailability.mayHaveDriver(lat, lon),
+                () -> assignDriverOnRetry(orderId, lat, lon),
+                dResp -> driverAssignedOnRetry(orderId, dResp));
+        followUps.retryDriverAssignment(orderId, retry, () -> {
+            cancelDriverAssignment(orderId);
+            if (notificationStub != null) {
+                publish(OrderStageEvent.FOLLOW_UP, notification(orderId, OrderEvent.ORDER_EVENT_NOTIFICATION)
+                        .setTitle("No Driver Found")
+                        .setBody("No driver could be assigned to order " + orderId + "; please try again later")
+                        .build());
+            }
+        });
+    }
+
+    private AssignDriverResponse assignDriverOnRetry(String orderId, double lat, double lon) {
+        OrderStageEvent stage = OrderStageEvent.start(OrderStageEvent.FOLLOW_UP, "driver-assignment");
+        AssignDriverResponse dResp;
+        try {
+            dResp = driverStub.withDeadlineAfter(followUps.driverCallTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .assignDriver(assignDriverRequest(orderId, lat, lon));
+        } catch (RuntimeException e) {
+            stage.finish(orderId, "ERROR");
+            throw e;
+        }
+        stage.finish(orderId, WireStatus.assignmentStatusOf(dResp).name());
+        return dResp;
+    }
+
+    private void driverAssignedOnRetry(String orderId, AssignDriverResponse dResp) {
+        log.info("Driver {} assigned to order={} on retry", dResp.getDriverId(), orderId);
+        try {
+            if (notificationStub != null) {
+                publish(OrderStageEvent.FOLLOW_UP, notification(orderId, OrderEvent.ORDER_EVENT_DRIVER_ASSIGNED)
+                        .setTitle("Driver Assigned")
+                        .setBody("Driver " + dResp.getDriverName() + " assigned to order " + orderId)
+                        .build());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send DRIVER_ASSIGNED notification for {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    /** Stops driver-service matching a stale order and frees a driver it matched since the last retry. */
+    private void cancelDriverAssignment(String orderId) {
+        OrderStageEvent stage = OrderStageEvent.start(OrderStageEvent.FOLLOW_UP, "driver-cancel");
+        try {
+            CancelAssignmentResponse resp = driverStub
+                .withDeadlineAfter(followUps.driverCallTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .cancelAssignment(CancelAssignmentRequest.newBuilder().setOrderId(orderId).build());
+            stage.finish(orderId, resp.getDriverReleased() ? "RELEASED" : "OK");
+            if (resp.getDriverReleased()) {
+                log.info("Released the driver matched to stale order={}", orderId);
+            }
+        } catch (RuntimeException e) {
+            stage.finish(orderId, "ERROR");
+            log.warn("Failed to cancel driver assignment for stale order={}: {}", orderId, e.getMessage());
+        }
+    }
+
+    /** Payment-service has no lookup for a reviewed payment, so an unresolved review is reported as failed. */
+    private void paymentReviewTimedOut(String orderId) {
+        log.warn("Payment review for order={} not resolved in time", orderId);
+        if (notificationStub != null) {
+            publish(OrderStageEvent.FOLLOW_UP, notification(orderId, OrderEvent.ORDER_EVENT_PAYMENT_FAILED)
+                    .setTitle("Payment Review Timed Out")
+                    .setBody("Payment for order " + orderId + " was not reviewed in time")
+                    .build());
+        }
+    }
+
+    private static AssignDriverRequest assignDriverRequest(String orderId, double lat, double lon) {
+        return AssignDriverRequest.newBuilder()
+            .setOrderId(orderId)
+            .setPickupLocation(Location.newBuilder().setLatitude(lat).setLongitude(lon).build())
+            .build();
+    }
+
+    /** Sends an order notification, recorded as a "notify" stage of createOrder. */
+    private void publish(NotificationMessage message) {
+        publish(OrderStageEvent.CREATE_ORDER, message);
+    }
+
+    private void publish(String operation, NotificationMessage message) {
+        OrderStageEvent stage = OrderStageEvent.start(operation, "notify");
+        try {
+            notificationStub.sendNotification(message);
+            stage.finish(message.getOrderId(), message.getStatusCode().name());
+        } catch (RuntimeException e) {
+            stage.finish(message.getOrderId(), "ERROR");
+            throw e;
+        }
+    }
+
+    private NotificationMessage.Builder notification(String orderId, OrderEvent event) {
+        NotificationMessage.Builder builder = NotificationMessage.newBuilder()
+                .setOrderId(orderId)
+                .setStatusCode(event)
+                .setTimestamp(System.currentTimeMillis());
+        if (legacyStatusStrings) {
+            builder.setStatus(WireStatus.legacyName(event));
+        }
+        return builder;
+    }
+
+    private static OrderEvent orderEventOf(String status) {
+        if (status == null || status.isBlank()) {
+            return OrderEvent.ORDER_EVENT_NOTIFICATION;
+        }
+        try {
+            return OrderEvent.valueOf("ORDER_EVENT_" + status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return OrderEvent.ORDER_EVENT_NOTIFICATION;
+        }
+    }
+
+    private record OrderShard(String target, ManagedChannel channel, OrderServiceGrpc.OrderServiceBlockingStub stub) {
+    }
 }
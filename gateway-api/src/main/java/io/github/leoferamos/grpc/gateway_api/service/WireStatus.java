@@ -0,0 +1,87 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import io.github.leoferamos.grpc.driver.AssignDriverResponse;
+import io.github.leoferamos.grpc.driver.AssignmentStatus;
+import io.github.leoferamos.grpc.notification.OrderEvent;
+import io.github.leoferamos.grpc.notification.OrderUpdate;
+import io.github.leoferamos.grpc.payment.PaymentResponse;
+import io.github.leoferamos.grpc.payment.PaymentStatus;
+
+/**
+ * Reads the v2 status enums, falling back to the legacy string fields for peers that have not
+ * been upgraded yet, and maps enums back to the legacy names still used by the REST API.
+ */
+final class WireStatus {
+
+    private WireStatus() {
+    }
+
+    static PaymentStatus paymentStatusOf(PaymentResponse response) {
+        PaymentStatus code = response.getStatusCode();
+        if (code != PaymentStatus.PAYMENT_STATUS_UNSPECIFIED && code != PaymentStatus.UNRECOGNIZED) {
+            return code;
+        }
+        switch (response.getStatus().toUpperCase()) {
+            case "APPROVED":
+                return PaymentStatus.PAYMENT_STATUS_APPROVED;
+            case "REJECTED":
+                return PaymentStatus.PAYMENT_STATUS_REJECTED;
+            case "PENDING":
+                return PaymentStatus.PAYMENT_STATUS_PENDING;
+            default:
+                return PaymentStatus.PAYMENT_STATUS_UNSPECIFIED;
+        }
+    }
+
+    static AssignmentStatus assignmentStatusOf(AssignDriverResponse response) {
+        AssignmentStatus code = response.getStatusCode();
+        if (code != AssignmentStatus.ASSIGNMENT_STATUS_UNSPECIFIED && code != AssignmentStatus.UNRECOGNIZED) {
+            return code;
+        }
+        switch (response.getStatus().toUpperCase()) {
+            case "ASSIGNED":
+                return AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED;
+            case "NO_DRIVERS_AVAILABLE":
+                return AssignmentStatus.ASSIGNMENT_STATUS_NO_DRIVERS_AVAILABLE;
+            default:
+                return AssignmentStatus.ASSIGNMENT_STATUS_UNSPECIFIED;
+        }
+    }
+
+    static String orderStatusOf(OrderUpdate update) {
+        OrderEvent code = update.getStatusCode();
+        if (code != OrderEvent.ORDER_EVENT_UNSPECIFIED && code != OrderEvent.UNRECOGNIZED) {
+            return legacyName(code);
+        }
+        return update.getStatus();
+    }
+
+    /** Order event published for a payment outcome; null status means the payment call itself failed. */
+    static OrderEvent paymentEvent(PaymentStatus status) {
+        if (status == null) {
+            return OrderEvent.ORDER_EVENT_PAYMENT_FAILED;
+        }
+        switch (status) {
+            case PAYMENT_STATUS_APPROVED:
+                return OrderEvent.ORDER_EVENT_PAYMENT_APPROVED;
+            case PAYMENT_STATUS_REJECTED:
+                return OrderEvent.ORDER_EVENT_PAYMENT_REJECTED;
+            case PAYMENT_STATUS_PENDING:
+                return OrderEvent.ORDER_EVENT_PAYMENT_PENDING;
+            default:
+                return OrderEvent.ORDER_EVENT_PAYMENT_FAILED;
+        }
+    }
+
+    static String legacyName(PaymentStatus status) {
+        return status == null ? "FAILED" : strip(status.name(), "PAYMENT_STATUS_");
+    }
+
+    static String legacyName(OrderEvent event) {
+        return strip(event.name(), "ORDER_EVENT_");
+    }
+
+    private static String strip(String name, String prefix) {
+        return name.startsWith(prefix) ? name.substring(prefix.length()) : name;
+    }
+}
@@ -0,0 +1,301 @@
+package io.github.leoferamos.grpc.gateway_api.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hashed timing wheel (Varghese &amp; Lauck) for large numbers of coarse timers. A timer lands in
+ * bucket {@code deadlineTick % ticksPerWheel} with the number of full wheel turns still to wait;
+ * one worker thread visits a bucket per tick and fires the timers whose rounds have run out.
+ *
+ * <p>Scheduling and cancelling are O(1) and lock-free for the caller: both are queued and
+ * applied by the worker at its next tick. Timers fire up to one tick late, never early.
+ * Tasks run on the worker thread and must not block; hand slow work to an executor.
+ */
+@Slf4j
+public final class HashedTimingWheel implements AutoCloseable {
+
+    /** Upper bound on queued schedules moved into buckets per tick, so a burst cannot stall firing. */
+    private static final int MAX_TRANSFERS_PER_TICK = 1_000_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long maxPending;
+    private final LongConsumer lagRecorder;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean stopped;
+
+    /** Only touched by the worker thread. */
+    private long tick;
+
+    /**
+     * @param tickDuration  timer resolution; deadlines are rounded up to a whole tick
+     * @param ticksPerWheel buckets, rounded up to a power of two; one turn covers {@code tickDuration * ticksPerWheel}
+     * @param maxPending    timers allowed at once ({@code <= 0} for no limit)
+     * @param lagRecorder   receives how late each timer fired, in nanoseconds (may be null)
+     */
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, long maxPending,
+                             LongConsumer lagRecorder) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("tickDuration and ticksPerWheel must be positive");
+        }
+        int buckets = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        buckets = Math.max(1, buckets);
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        this.wheel = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = buckets - 1;
+        this.maxPending = maxPending;
+        this.lagRecorder = lagRecorder;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs {@code task} on the wheel thread once {@code delay} has passed.
+     *
+     * @throws RejectedExecutionException when the wheel is stopped or {@code maxPending} timers exist
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new RejectedExecutionException("Timing wheel is stopped");
+        }
+        long count = pending.incrementAndGet();
+        if (maxPending > 0 && count > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Too many pending timers (" + maxPending + ")");
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, task, deadline);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /** Timers scheduled and neither fired nor cancelled yet. */
+    public long pending() {
+        return pending.get();
+    }
+
+    public long expiredCount() {
+        return expiredCount.get();
+    }
+
+    public long cancelledCount() {
+        return cancelledCount.get();
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    /** Stops the worker; timers that have not fired are dropped. */
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (!stopped) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+        long dropped = pending.getAndSet(0);
+        if (dropped > 0) {
+            log.info("Timing wheel {} stopped with {} pending timer(s)", worker.getName(), dropped);
+        }
+    }
+
+    /** Sleeps until the end of the current tick; false once the wheel is stopped. */
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            // Already overdue timers go in the current bucket and fire this tick
+            long targetTick = Math.max(deadlineTick, tick);
+            timeout.remainingRounds = (targetTick - tick) / wheel.length;
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    /** A scheduled task; cancelling it is O(1) and safe from any thread. */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimingWheel timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+
+        // Bucket bookkeeping, owned by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HashedTimingWheel timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** @return true if this call cancelled the timer, false if it had already fired or been cancelled */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelledCount.incrementAndGet();
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire(long nowNanos) {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            timer.expiredCount.incrementAndGet();
+            // Nothing may escape to the worker: it is the only thread firing timers
+            if (timer.lagRecorder != null) {
+                try {
+                    timer.lagRecorder.accept(Math.max(0, nowNanos - deadline));
+                } catch (Throwable t) {
+                    log.warn("Timer lag recorder failed: {}", t.toString(), t);
+                }
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.warn("Timer task {} failed: {}", task, t.toString(), t);
+            }
+        }
+    }
+
+    /** Doubly linked list of timers, so removal of a cancelled timer is O(1). */
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.state != Timeout.PENDING) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire(System.nanoTime() - startNanos);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.leoferamos.grpc.gateway_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.leoferamos.grpc.gateway_api.config.RateLimitProperties;
+import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderRequest;
+import io.github.leoferamos.grpc.gateway_api.dto.CreateOrderResponse;
+import io.github.leoferamos.grpc.gateway_api.service.OrderAdmissionService;
+import io.github.leoferamos.grpc.gateway_api.service.OrderGatewayService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class OrderControllerTest {
+
+    private final OrderGatewayService gateway = mock(OrderGatewayService.class);
+    private OrderController controller;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties props = new RateLimitProperties();
+        // One order per customer every 4s, restaurants effectively unlimited
+        props.setCustomer(new RateLimitProperties.Bucket(0.25, 1));
+        props.setRestaurant(new RateLimitProperties.Bucket(1000.0, 1000));
+        controller = new OrderController(gateway, new OrderAdmissionService(props));
+        when(gateway.createOrder(any())).thenReturn(CreateOrderResponse.builder()
+                .orderId("order-1")
+                .status("CREATED")
+                .build());
+    }
+
+    @Test
+    void rateLimitedOrderGets429WithRetryAfter() {
+        assertThat(controller.createOrder(request("alice", "r1")).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<CreateOrderResponse> limited = controller.createOrder(request("alice", "r1"));
+
+        assertThat(limited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getBody().getStatus()).isEqualTo("RATE_LIMITED");
+        // The next permit is just under 4s away, rounded up to whole seconds
+        assertThat(limited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("4");
+        verify(gateway, times(1)).createOrder(any());
+    }
+
+    @Test
+    void missingIdsGet400WithoutTouchingTheLimiter() {
+        ResponseEntity<CreateOrderResponse> noCustomer = controller.createOrder(request(null, "r1"));
+        ResponseEntity<CreateOrderResponse> noRestaurant = controller.createOrder(request("alice", " "));
+
+        assertThat(noCustomer.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(noCustomer.getBody().getStatus()).isEqualTo("INVALID_REQUEST");
+        assertThat(noRestaurant.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(gateway, never()).createOrder(any());
+        assertThat(controller.createOrder(request("alice", "r1")).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    private static CreateOrderRequest request(String customerId, String restaurantId) {
+        return CreateOrderRequest.builder()
+                .customerId(customerId)
+                .restaurantId(restaurantId)
+                .build();
+    }
+}
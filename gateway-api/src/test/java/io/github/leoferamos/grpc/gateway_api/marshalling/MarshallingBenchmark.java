@@ -0,0 +1,227 @@
+package io.github.leoferamos.grpc.gateway_api.marshalling;
+
+import com.google.protobuf.CodedInputStream;
+import com.sun.management.ThreadMXBean;
+import io.github.leoferamos.grpc.driver.AssignDriverResponse;
+import io.github.leoferamos.grpc.driver.AssignmentStatus;
+import io.github.leoferamos.grpc.gateway_api.config.GrpcClientTransportProperties;
+import io.github.leoferamos.grpc.notification.NotificationMessage;
+import io.github.leoferamos.grpc.notification.OrderEvent;
+import io.github.leoferamos.grpc.order.OrderRequest;
+import io.github.leoferamos.grpc.order.OrderResponse;
+import io.github.leoferamos.grpc.order.OrderServiceGrpc;
+import io.github.leoferamos.grpc.order.OrderStatus;
+import io.grpc.Drainable;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.internal.ReadableBuffers;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Allocation and time per message of the default protobuf marshalling vs {@link PooledMarshalling},
+ * then unary CreateOrder calls over a loopback Netty connection with N caller threads. Bytes are
+ * what the calling thread allocated (blocking stubs serialize and parse on the caller); GC counts
+ * are for the whole process.
+ *
+ * <p>Two rows cover what PooledMarshalling deliberately does not do: decoding a response in place
+ * from a direct buffer, which allocates more than the default's copy into a reused array, and a
+ * reused per-thread builder, which is no cheaper than the new builder the JIT scalar-replaces.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.leoferamos.grpc.gateway_api.marshalling.MarshallingBenchmark \
+ *     -Dexec.args="200000 8"   # loopback calls per mode, caller threads
+ * </pre>
+ */
+public class MarshallingBenchmark {
+
+    private static final int ITERATIONS = 2_000_000;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final ThreadLocal<NotificationMessage.Builder> REUSED =
+            ThreadLocal.withInitial(NotificationMessage::newBuilder);
+    private static volatile Object escaped;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        System.out.printf("%-28s %14s %12s%n", "single thread", "alloc B/msg", "ns/msg");
+        MethodDescriptor.Marshaller<AssignDriverResponse> defaults =
+                ProtoUtils.marshaller(AssignDriverResponse.getDefaultInstance());
+        PooledProtoMarshaller.Counters counters = new PooledProtoMarshaller.Counters();
+        MethodDescriptor.Marshaller<AssignDriverResponse> pooled = PooledProtoMarshaller.wrap(defaults, counters);
+        AssignDriverResponse response = assignDriverResponse();
+        ByteBuffer wire = direct(response);
+        run("serialize, default", () -> serialize(defaults, response));
+        run("serialize, pooled", () -> serialize(pooled, response));
+        run("parse, default (copy)", () -> parse(defaults, wire));
+        run("parse, in place (direct)", () -> parseInPlace(wire));
+        run("notification, new builder", () -> notification(NotificationMessage.newBuilder()));
+        run("notification, reused builder", () -> notification(REUSED.get().clear()));
+
+        System.out.printf("%n%d CreateOrder calls, %d caller threads%n", calls, threads);
+        System.out.printf("%-28s %12s %14s %8s %10s%n", "loopback", "calls/s", "alloc B/call", "GCs", "GC ms");
+        loopback("default (warm-up)", false, calls / 4, threads);
+        loopback("pooled (warm-up)", true, calls / 4, threads);
+        loopback("default marshalling", false, calls, threads);
+        loopback("pooled marshalling", true, calls, threads);
+    }
+
+    private static AssignDriverResponse assignDriverResponse() {
+        return AssignDriverResponse.newBuilder()
+                .setOrderId("0BsR4mXfQ2a")
+                .setDriverId("driver-4821")
+                .setDriverName("Ana Souza")
+                .setVehicle("Honda CG 160 - ABC1D23")
+                .setEstimatedTimeMinutes(12)
+                .setStatus("ASSIGNED")
+                .setStatusCode(AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED)
+                .setPickupDistanceKm(1.8)
+                .build();
+    }
+
+    private static OrderResponse orderResponse(OrderRequest request) {
+        return OrderResponse.newBuilder()
+                .setOrderId("0BsR4mXfQ2a")
+                .setStatus("CREATED")
+                .setStatusCode(OrderStatus.ORDER_STATUS_CREATED)
+                .build();
+    }
+
+    private static OrderRequest orderRequest(int i) {
+        return OrderRequest.newBuilder()
+                .setUserId("customer-" + (i & 1023))
+                .setRestaurantId("restaurant-" + (i & 63))
+                .addItems("Margherita")
+                .addItems("Coke")
+                .build();
+    }
+
+    private static int serialize(MethodDescriptor.Marshaller<AssignDriverResponse> marshaller,
+                                 AssignDriverResponse message) {
+        try {
+            InputStream stream = marshaller.stream(message);
+            escaped = stream;
+            return ((Drainable) stream).drainTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int parse(MethodDescriptor.Marshaller<AssignDriverResponse> marshaller, ByteBuffer wire) {
+        return marshaller.parse(ReadableBuffers.openStream(ReadableBuffers.wrap(wire.duplicate()), true))
+                .getEstimatedTimeMinutes();
+    }
+
+    private static int parseInPlace(ByteBuffer wire) {
+        try {
+            return AssignDriverResponse.parseFrom(CodedInputStream.newInstance(wire.duplicate()))
+                    .getEstimatedTimeMinutes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int notification(NotificationMessage.Builder builder) {
+        NotificationMessage message = builder.setOrderId("0BsR4mXfQ2a")
+                .setStatusCode(OrderEvent.ORDER_EVENT_DRIVER_ASSIGNED)
+                .setStatus("DRIVER_ASSIGNED")
+                .setTitle("Driver Assigned")
+                .setTimestamp(System.nanoTime())
+                .build();
+        escaped = message;
+        return message.getStatusCodeValue();
+    }
+
+    private static void run(String name, Supplier<Integer> round) {
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            sink += round.get();
+        }
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += round.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+        System.out.printf("%-28s %14d %12.1f%s%n", name, allocated / ITERATIONS, (double) elapsed / ITERATIONS,
+                sink == Long.MIN_VALUE ? "!" : "");
+    }
+
+    private static void loopback(String name, boolean pooledMarshalling, int calls, int threads) throws Exception {
+        Server server = NettyServerBuilder.forPort(0)
+                .addService(new OrderServiceGrpc.OrderServiceImplBase() {
+                    @Override
+                    public void createOrder(OrderRequest request, StreamObserver<OrderResponse> responses) {
+                        responses.onNext(orderResponse(request));
+                        responses.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        GrpcClientTransportProperties transport = new GrpcClientTransportProperties();
+        transport.setPooledMarshalling(pooledMarshalling);
+        PooledMarshalling marshalling = new PooledMarshalling(transport, new SimpleMeterRegistry());
+        ManagedChannel channel = marshalling.configure(NettyChannelBuilder.forAddress("127.0.0.1", server.getPort())
+                .usePlaintext())
+                .build();
+        OrderServiceGrpc.OrderServiceBlockingStub stub = OrderServiceGrpc.newBlockingStub(channel);
+
+        AtomicLong allocated = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int share = calls / threads;
+            Thread caller = new Thread(() -> {
+                long before = THREADS.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < share; i++) {
+                    stub.createOrder(orderRequest(i));
+                }
+                allocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - before);
+                done.countDown();
+            });
+            caller.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        int made = calls / threads * threads;
+        System.out.printf("%-28s %,12.0f %14d %8d %10d%n", name, made / (elapsed / 1e9), allocated.get() / made,
+                gcCount() - gcCount, gcMillis() - gcMillis);
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static ByteBuffer direct(AssignDriverResponse message) {
+        byte[] bytes = message.toByteArray();
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
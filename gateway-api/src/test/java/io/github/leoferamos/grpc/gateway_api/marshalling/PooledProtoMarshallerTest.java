@@ -0,0 +1,76 @@
+package io.github.leoferamos.grpc.gateway_api.marshalling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.leoferamos.grpc.order.OrderRequest;
+import io.grpc.Drainable;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class PooledProtoMarshallerTest {
+
+    private final MethodDescriptor.Marshaller<OrderRequest> standard =
+            ProtoUtils.marshaller(OrderRequest.getDefaultInstance());
+    private final PooledProtoMarshaller.Counters counters = new PooledProtoMarshaller.Counters();
+    private final MethodDescriptor.Marshaller<OrderRequest> pooled = PooledProtoMarshaller.wrap(standard, counters);
+
+    @Test
+    void writesTheSameBytesAsTheDefaultMarshaller() throws IOException {
+        // Empty, small, then past the scratch limit, then small again on the same thread's scratch array
+        OrderRequest[] messages = {
+                OrderRequest.getDefaultInstance(),
+                order(3, 10),
+                order(200, 1000),
+                order(1, PooledProtoMarshaller.MAX_SCRATCH_BYTES),
+                order(2, 5),
+        };
+        assertThat(messages[2].getSerializedSize()).isGreaterThan(PooledProtoMarshaller.MAX_SCRATCH_BYTES);
+        assertThat(messages[3].getSerializedSize()).isGreaterThan(PooledProtoMarshaller.MAX_SCRATCH_BYTES);
+
+        for (OrderRequest message : messages) {
+            byte[] expected = standard.stream(message).readAllBytes();
+
+            InputStream drained = pooled.stream(message);
+            assertThat(drained).isInstanceOf(Drainable.class);
+            assertThat(drained.available()).isEqualTo(expected.length);
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            assertThat(((Drainable) drained).drainTo(target)).isEqualTo(expected.length);
+            assertThat(target.toByteArray()).isEqualTo(expected);
+            assertThat(drained.read()).isEqualTo(-1);
+
+            assertThat(pooled.stream(message).readAllBytes()).isEqualTo(expected);
+            assertThat(pooled.parse(pooled.stream(message))).isEqualTo(message);
+        }
+        assertThat(counters.scratch()).isEqualTo(3);
+        assertThat(counters.allocated()).isEqualTo(2);
+    }
+
+    @Test
+    void drainsWhatIsLeftAfterAPartialRead() throws IOException {
+        OrderRequest message = order(200, 1000);
+        byte[] expected = standard.stream(message).readAllBytes();
+
+        InputStream stream = pooled.stream(message);
+        byte[] head = new byte[100];
+        assertThat(stream.read(head, 0, head.length)).isEqualTo(head.length);
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        rest.write(head);
+        ((Drainable) stream).drainTo(rest);
+
+        assertThat(rest.toByteArray()).isEqualTo(expected);
+    }
+
+    private static OrderRequest order(int items, int itemLength) {
+        String item = String.join("", Collections.nCopies(itemLength, "x"));
+        OrderRequest.Builder order = OrderRequest.newBuilder().setUserId("user-1").setRestaurantId("restaurant-1");
+        for (int i = 0; i < items; i++) {
+            order.addItems(item);
+        }
+        return order.build();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.leoferamos.grpc.gateway_api.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class KeyedRateLimiterTest {
+
+    private static final long NOW = TimeUnit.SECONDS.toNanos(100);
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        KeyedRateLimiter limiter = limiter(100, Duration.ofMinutes(5));
+
+        assertThat(limiter.tryAcquire("alice", NOW)).isZero();
+        assertThat(limiter.tryAcquire("alice", NOW)).isPositive();
+        assertThat(limiter.tryAcquire("bob", NOW)).isZero();
+        assertThatThrownBy(() -> limiter.tryAcquire(null, NOW)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void trackedKeysStayWithinTheBound() {
+        KeyedRateLimiter limiter = limiter(10, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("customer-" + i, NOW);
+        }
+
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void idleKeyIsEvictedAndComesBackFull() {
+        KeyedRateLimiter limiter = limiter(100, Duration.ofMinutes(5));
+        assertThat(limiter.tryAcquire("alice", NOW)).isZero();
+        assertThat(limiter.tryAcquire("alice", NOW)).isPositive();
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+
+        ticker.addAndGet(Duration.ofMinutes(6).toNanos());
+        limiter.tryAcquire("bob", NOW);
+
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+        // Same bucket clock, so only eviction can explain the fresh permit
+        assertThat(limiter.tryAcquire("alice", NOW)).isZero();
+    }
+
+    @Test
+    void refundOfAnUntrackedKeyIsANoOp() {
+        KeyedRateLimiter limiter = limiter(100, Duration.ofMinutes(5));
+
+        limiter.refund("nobody");
+
+        assertThat(limiter.trackedKeys()).isZero();
+    }
+
+    /** A bucket of one permit every 10s, with eviction run inline on a manual clock. */
+    private KeyedRateLimiter limiter(long maxKeys, Duration idleExpiry) {
+        return new KeyedRateLimiter(0.1, 1, maxKeys, idleExpiry, ticker::get, Runnable::run);
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.leoferamos.grpc.gateway_api.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(100);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void admitsTheBurstAtOnceThenRejectsUntilTheNextEmission() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryAcquire(START + INTERVAL / 4)).isEqualTo(INTERVAL * 3 / 4);
+
+        // One permit comes back per emission interval
+        assertThat(bucket.tryAcquire(START + INTERVAL)).isZero();
+        assertThat(bucket.tryAcquire(START + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refillsToTheBurstAndNoFurther() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(START);
+        }
+
+        long later = START + INTERVAL * 2;
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isEqualTo(INTERVAL);
+
+        // Idle far longer than the burst needs still only buys the burst
+        long idle = START + TimeUnit.SECONDS.toNanos(60);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(idle)).isZero();
+        }
+        assertThat(bucket.tryAcquire(idle)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refundReturnsThePermit() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isPositive();
+        bucket.refund();
+        assertThat(bucket.tryAcquire(START)).isZero();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.leoferamos.grpc.gateway_api.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+    private static final List<String> SHARDS = List.of("order-1:9090", "order-2:9090", "order-3:9090", "order-4:9090");
+
+    @Test
+    void emptyRingRoutesNowhere() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(160);
+
+        assertThat(ring.route("restaurant-1")).isNull();
+        assertThat(ring.nodes()).isEmpty();
+        assertThatThrownBy(() -> new ConsistentHashRing<String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void routingDependsOnlyOnTheKeyAndTheNodes() {
+        ConsistentHashRing<String> ring = ring(160, SHARDS);
+        ConsistentHashRing<String> reversed = ring(160, List.of(SHARDS.get(3), SHARDS.get(2), SHARDS.get(1), SHARDS.get(0)));
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "restaurant-" + i;
+            assertThat(ring.route(key)).isEqualTo(ring.route(key)).isEqualTo(reversed.route(key));
+        }
+        assertThat(ring.route(null)).isEqualTo(ring.route(""));
+    }
+
+    @Test
+    void virtualNodesEvenOutTheDistribution() {
+        // A node's share varies by about 1/sqrt(virtualNodes): ~8% at the default 160, ~3% at 1000
+        Map<String, Integer> byDefault = counts(ring(160, SHARDS));
+        Map<String, Integer> byMany = counts(ring(1000, SHARDS));
+
+        assertThat(byDefault).containsOnlyKeys(SHARDS);
+        assertShares(byDefault, 0.25);
+        assertShares(byMany, 0.10);
+        assertThat(imbalance(byMany)).isLessThan(imbalance(byDefault));
+        assertThat(imbalance(byDefault)).isLessThan(imbalance(counts(ring(1, SHARDS))));
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+        ConsistentHashRing<String> before = ring(160, SHARDS);
+        ConsistentHashRing<String> after = ring(160, SHARDS);
+        after.addNode("order-5:9090", "order-5:9090");
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "restaurant-" + i;
+            String owner = after.route(key);
+            if (!owner.equals(before.route(key))) {
+                assertThat(owner).isEqualTo("order-5:9090");
+                moved++;
+            }
+        }
+        // Ideally 1/5 of the keys
+        assertThat((double) moved / KEYS).isBetween(0.15, 0.25);
+    }
+
+    @Test
+    void losingANodeOnlyMovesItsOwnKeys() {
+        ConsistentHashRing<String> full = ring(160, SHARDS);
+        ConsistentHashRing<String> withoutLast = ring(160, SHARDS.subList(0, SHARDS.size() - 1));
+        String lost = SHARDS.get(SHARDS.size() - 1);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "restaurant-" + i;
+            String owner = full.route(key);
+            if (owner.equals(lost)) {
+                moved++;
+            } else {
+                assertThat(withoutLast.route(key)).isEqualTo(owner);
+            }
+        }
+        assertThat((double) moved / KEYS).isBetween(0.20, 0.30);
+    }
+
+    private static ConsistentHashRing<String> ring(int virtualNodes, List<String> shards) {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(virtualNodes);
+        for (String shard : shards) {
+            ring.addNode(shard, shard);
+        }
+        return ring;
+    }
+
+    private static Map<String, Integer> counts(ConsistentHashRing<String> ring) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.route("restaurant-" + i), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static void assertShares(Map<String, Integer> counts, double tolerance) {
+        double fair = (double) KEYS / counts.size();
+        assertThat(counts.values())
+                .allSatisfy(n -> assertThat(n).isBetween((int) (fair * (1 - tolerance)), (int) (fair * (1 + tolerance))));
+    }
+
+    /** Largest share over smallest share; 1.0 is a perfectly even split. */
+    private static double imbalance(Map<String, Integer> counts) {
+        int max = counts.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        int min = counts.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+        return min == 0 ? Double.MAX_VALUE : (double) max / min;
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.leoferamos.grpc.gateway_api.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+class OrderAdmissionServiceTest {
+
+    @Test
+    void restaurantRejectionDoesNotUseTheCustomersQuota() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setCustomer(new RateLimitProperties.Bucket(0.001, 2));
+        props.setRestaurant(new RateLimitProperties.Bucket(0.001, 1));
+        OrderAdmissionService admission = new OrderAdmissionService(props);
+
+        assertThat(admit(admission, "alice", "hot-restaurant")).isTrue();
+        for (int i = 0; i < 10; i++) {
+            assertThat(admit(admission, "alice", "hot-restaurant")).isFalse();
+        }
+        // Only the first call was charged to alice, so her second permit is still there
+        assertThat(admit(admission, "alice", "quiet-restaurant")).isTrue();
+        assertThat(admit(admission, "alice", "other-restaurant")).isFalse();
+    }
+
+    @Test
+    void retryAfterIsTheWaitForTheNextPermitRoundedUpToSeconds() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setCustomer(new RateLimitProperties.Bucket(0.4, 1));
+        props.setRestaurant(new RateLimitProperties.Bucket(0.1, 1));
+        OrderAdmissionService admission = new OrderAdmissionService(props);
+
+        assertThat(admit(admission, "alice", "r1")).isTrue();
+        // alice's next permit is just under 2.5s away
+        try (OrderAdmissionService.Admission a = admission.tryAdmit("alice", "r2")) {
+            assertThat(a.isGranted()).isFalse();
+            assertThat(a.getReason()).contains("customer alice");
+            assertThat(a.getRetryAfterSeconds()).isEqualTo(3);
+        }
+        // r1's is just under 10s away
+        try (OrderAdmissionService.Admission a = admission.tryAdmit("bob", "r1")) {
+            assertThat(a.isGranted()).isFalse();
+            assertThat(a.getReason()).contains("restaurant r1");
+            assertThat(a.getRetryAfterSeconds()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void inFlightRejectionAsksForARetryInOneSecond() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setMaxConcurrentOrders(1);
+        OrderAdmissionService admission = new OrderAdmissionService(props);
+
+        try (OrderAdmissionService.Admission held = admission.tryAdmit("alice", "r1")) {
+            assertThat(held.isGranted()).isTrue();
+            try (OrderAdmissionService.Admission a = admission.tryAdmit("bob", "r2")) {
+                assertThat(a.isGranted()).isFalse();
+                assertThat(a.getRetryAfterSeconds()).isEqualTo(1);
+            }
+        }
+        assertThat(admit(admission, "bob", "r2")).isTrue();
+    }
+
+    @Test
+    void rejectsMissingIds() {
+        OrderAdmissionService admission = new OrderAdmissionService(new RateLimitProperties());
+
+        assertThatThrownBy(() -> admission.tryAdmit(null, "r1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> admission.tryAdmit("c1", " ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean admit(OrderAdmissionService admission, String customerId, String restaurantId) {
+        try (OrderAdmissionService.Admission a = admission.tryAdmit(customerId, restaurantId)) {
+            return a.isGranted();
+        }
+    }
+}
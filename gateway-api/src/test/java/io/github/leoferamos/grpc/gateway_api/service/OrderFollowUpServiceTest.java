@@ -0,0 +1,148 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.leoferamos.grpc.driver.AssignDriverResponse;
+import io.github.leoferamos.grpc.driver.AssignmentStatus;
+import io.github.leoferamos.grpc.gateway_api.config.FollowUpProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderFollowUpServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OrderFollowUpService followUps;
+
+    @BeforeEach
+    void start() {
+        FollowUpProperties props = new FollowUpProperties();
+        props.setTick(Duration.ofMillis(10));
+        props.setTicksPerWheel(64);
+        props.getDriverRetry().setInitialBackoff(Duration.ofMillis(20));
+        props.getDriverRetry().setMaxBackoff(Duration.ofMillis(40));
+        props.getDriverRetry().setJitter(0);
+        props.setPaymentReviewTimeout(Duration.ofMillis(100));
+        props.setStaleOrderAfter(Duration.ofMillis(400));
+        followUps = new OrderFollowUpService(props, registry);
+        followUps.init();
+    }
+
+    @AfterEach
+    void stop() {
+        followUps.shutdown();
+    }
+
+    @Test
+    void retriesUntilADriverIsAssigned() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch assigned = new CountDownLatch(1);
+        AtomicInteger stale = new AtomicInteger();
+        followUps.retryDriverAssignment("o1", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                return false;
+            }
+            assigned.countDown();
+            return true;
+        }, stale::incrementAndGet);
+
+        assertThat(assigned.await(2, TimeUnit.SECONDS)).isTrue();
+        // Assignment ends the follow-up: no more retries and the stale deadline is cancelled
+        TimeUnit.MILLISECONDS.sleep(600);
+        assertThat(attempts).hasValue(3);
+        assertThat(stale).hasValue(0);
+        assertThat(outcome(OrderFollowUpService.DRIVER_RETRY, "assigned")).isEqualTo(1);
+        assertThat(outcome(OrderFollowUpService.DRIVER_RETRY, "retried")).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpOnStaleOrders() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch stale = new CountDownLatch(1);
+        long start = System.nanoTime();
+        followUps.retryDriverAssignment("o2", () -> {
+            attempts.incrementAndGet();
+            return false;
+        }, stale::countDown);
+
+        assertThat(stale.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(400));
+        int attemptsAtStale = attempts.get();
+        assertThat(attemptsAtStale).isGreaterThan(1);
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(attempts).hasValue(attemptsAtStale);
+        assertThat(outcome(OrderFollowUpService.DRIVER_RETRY, "stale")).isEqualTo(1);
+    }
+
+    @Test
+    void newFollowUpReplacesThePreviousOne() throws InterruptedException {
+        AtomicInteger firstTimedOut = new AtomicInteger();
+        CountDownLatch secondTimedOut = new CountDownLatch(1);
+        followUps.expirePaymentReview("o3", firstTimedOut::incrementAndGet);
+        followUps.expirePaymentReview("o3", secondTimedOut::countDown);
+
+        assertThat(secondTimedOut.await(2, TimeUnit.SECONDS)).isTrue();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(firstTimedOut).hasValue(0);
+        assertThat(outcome(OrderFollowUpService.PAYMENT_REVIEW, "replaced")).isEqualTo(1);
+        assertThat(outcome(OrderFollowUpService.PAYMENT_REVIEW, "timed-out")).isEqualTo(1);
+    }
+
+    @Test
+    void collectsABatchMatchMadeAfterAvailabilityDroppedToZero() throws InterruptedException {
+        // Driver-service holds the order as pending; its late match takes the last free driver
+        AtomicInteger available = new AtomicInteger(1);
+        AtomicBoolean matched = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch assigned = new CountDownLatch(1);
+        AtomicInteger stale = new AtomicInteger();
+        DriverAssignmentRetry retry = new DriverAssignmentRetry(true, () -> available.get() > 0, () -> {
+            calls.incrementAndGet();
+            return matched.get() ? response(AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED)
+                    : response(AssignmentStatus.ASSIGNMENT_STATUS_NO_DRIVERS_AVAILABLE);
+        }, r -> assigned.countDown());
+        matched.set(true);
+        available.set(0);
+
+        followUps.retryDriverAssignment("o4", retry, stale::incrementAndGet);
+
+        assertThat(assigned.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls).hasValue(1);
+        TimeUnit.MILLISECONDS.sleep(500);
+        assertThat(stale).hasValue(0);
+        assertThat(outcome(OrderFollowUpService.DRIVER_RETRY, "assigned")).isEqualTo(1);
+    }
+
+    @Test
+    void skippedOrderWaitsForAvailabilityBeforeItIsSubmitted() throws InterruptedException {
+        AtomicInteger available = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch assigned = new CountDownLatch(1);
+        DriverAssignmentRetry retry = new DriverAssignmentRetry(false, () -> available.get() > 0, () -> {
+            calls.incrementAndGet();
+            return response(AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED);
+        }, r -> assigned.countDown());
+
+        followUps.retryDriverAssignment("o5", retry, () -> { });
+        TimeUnit.MILLISECONDS.sleep(150);
+        assertThat(calls).hasValue(0);
+
+        available.set(1);
+        assertThat(assigned.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls).hasValue(1);
+    }
+
+    private static AssignDriverResponse response(AssignmentStatus status) {
+        return AssignDriverResponse.newBuilder().setOrderId("o").setStatusCode(status).build();
+    }
+
+    private double outcome(String kind, String outcome) {
+        return registry.counter("gateway.followup.outcomes", "kind", kind, "outcome", outcome).count();
+    }
+}
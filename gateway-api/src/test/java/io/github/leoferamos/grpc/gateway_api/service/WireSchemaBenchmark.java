@@ -0,0 +1,118 @@
+package io.github.leoferamos.grpc.gateway_api.service;
+
+import com.sun.management.ThreadMXBean;
+import io.github.leoferamos.grpc.notification.NotificationMessage;
+import io.github.leoferamos.grpc.notification.OrderEvent;
+import io.github.leoferamos.grpc.payment.PaymentResponse;
+import io.github.leoferamos.grpc.payment.PaymentStatus;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Payload size and per-message allocation of the legacy string statuses vs the v2 enums,
+ * for the messages the gateway exchanges on every order. Each round builds the message,
+ * serializes it, parses it back and resolves the status the way the gateway does.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.leoferamos.grpc.gateway_api.service.WireSchemaBenchmark
+ * </pre>
+ */
+public class WireSchemaBenchmark {
+
+    private static final int ITERATIONS = 2_000_000;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        String paymentStatusText = args.length > 0 ? args[0] : "APPROVED";
+
+        Supplier<PaymentResponse> legacyPayment = () -> PaymentResponse.newBuilder()
+                .setPaymentId("0BsR4mXfQ2a")
+                .setStatus(paymentStatusText)
+                .setMessage("CREDIT_CARD payment approved")
+                .build();
+        Supplier<PaymentResponse> dualPayment = () -> PaymentResponse.newBuilder()
+                .setPaymentId("0BsR4mXfQ2a")
+                .setStatus(paymentStatusText)
+                .setStatusCode(PaymentStatus.PAYMENT_STATUS_APPROVED)
+                .setMessage("CREDIT_CARD payment approved")
+                .build();
+        Supplier<PaymentResponse> v2Payment = () -> PaymentResponse.newBuilder()
+                .setPaymentId("0BsR4mXfQ2a")
+                .setStatusCode(PaymentStatus.PAYMENT_STATUS_APPROVED)
+                .setMessage("CREDIT_CARD payment approved")
+                .build();
+
+        Supplier<NotificationMessage> legacyNotification = () -> NotificationMessage.newBuilder()
+                .setOrderId("0BsR4mXfQ2a")
+                .setStatus("PAYMENT_" + paymentStatusText)
+                .setTitle("Payment " + paymentStatusText)
+                .setTimestamp(1_760_000_000_000L)
+                .build();
+        Supplier<NotificationMessage> v2Notification = () -> NotificationMessage.newBuilder()
+                .setOrderId("0BsR4mXfQ2a")
+                .setStatusCode(WireStatus.paymentEvent(PaymentStatus.PAYMENT_STATUS_APPROVED))
+                .setTitle("Payment " + paymentStatusText)
+                .setTimestamp(1_760_000_000_000L)
+                .build();
+
+        System.out.printf("%-24s %10s %14s %12s%n", "variant", "bytes", "alloc B/msg", "ns/msg");
+        runPayment("payment legacy strings", legacyPayment, true);
+        runPayment("payment dual-write", dualPayment, false);
+        runPayment("payment v2 enums", v2Payment, false);
+        runNotification("notification legacy", legacyNotification, true);
+        runNotification("notification v2", v2Notification, false);
+    }
+
+    private static void runPayment(String name, Supplier<PaymentResponse> factory, boolean legacyRead) throws Exception {
+        long sink = 0;
+        // warm-up
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            sink += paymentRound(factory, legacyRead);
+        }
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += paymentRound(factory, legacyRead);
+        }
+        report(name, factory.get().getSerializedSize(), start, bytes, sink);
+    }
+
+    private static int paymentRound(Supplier<PaymentResponse> factory, boolean legacyRead) throws Exception {
+        PaymentResponse parsed = PaymentResponse.parseFrom(factory.get().toByteArray());
+        if (legacyRead) {
+            // what the gateway did before: compare strings
+            return "APPROVED".equalsIgnoreCase(parsed.getStatus()) ? 1 : 0;
+        }
+        return WireStatus.paymentStatusOf(parsed) == PaymentStatus.PAYMENT_STATUS_APPROVED ? 1 : 0;
+    }
+
+    private static void runNotification(String name, Supplier<NotificationMessage> factory, boolean legacyRead)
+            throws Exception {
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            sink += notificationRound(factory, legacyRead);
+        }
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += notificationRound(factory, legacyRead);
+        }
+        report(name, factory.get().getSerializedSize(), start, bytes, sink);
+    }
+
+    private static int notificationRound(Supplier<NotificationMessage> factory, boolean legacyRead) throws Exception {
+        NotificationMessage parsed = NotificationMessage.parseFrom(factory.get().toByteArray());
+        if (legacyRead) {
+            return parsed.getStatus().length();
+        }
+        return parsed.getStatusCode() == OrderEvent.ORDER_EVENT_PAYMENT_APPROVED ? 1 : 0;
+    }
+
+    private static void report(String name, int serializedSize, long startNanos, long startBytes, long sink) {
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+        System.out.printf("%-24s %10d %14d %12.1f%s%n", name, serializedSize, allocated / ITERATIONS,
+                (double) elapsed / ITERATIONS, sink == Long.MIN_VALUE ? "!" : "");
+    }
+}
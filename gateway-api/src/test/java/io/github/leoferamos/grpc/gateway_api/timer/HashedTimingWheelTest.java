@@ -0,0 +1,113 @@
+package io.github.leoferamos.grpc.gateway_api.timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK_MILLIS = 20;
+    /** Thread scheduling on a busy machine, on top of the one tick the wheel may add. */
+    private static final long SLACK_MILLIS = 30;
+
+    @Test
+    void firesNeverEarlyAndAtMostOneTickLate() throws InterruptedException {
+        // 8 buckets x 20ms: delays past 160ms wait at least one extra round
+        try (HashedTimingWheel wheel = wheel(8, 0)) {
+            long[] delays = {0, 5, 20, 45, 100, 170, 330};
+            CountDownLatch fired = new CountDownLatch(delays.length);
+            List<long[]> firings = new CopyOnWriteArrayList<>();
+            for (long delay : delays) {
+                long scheduledAt = System.nanoTime();
+                wheel.schedule(() -> {
+                    firings.add(new long[]{delay, System.nanoTime() - scheduledAt});
+                    fired.countDown();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+            assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+            for (long[] firing : firings) {
+                long delayNanos = TimeUnit.MILLISECONDS.toNanos(firing[0]);
+                assertThat(firing[1]).as("fired after %d ms", firing[0]).isGreaterThanOrEqualTo(delayNanos);
+                assertThat(firing[1] - delayNanos).as("lag for %d ms", firing[0])
+                        .isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS + SLACK_MILLIS));
+            }
+            assertThat(wheel.pending()).isZero();
+            assertThat(wheel.expiredCount()).isEqualTo(delays.length);
+        }
+    }
+
+    @Test
+    void waitsOutFullRoundsBeforeFiring() throws InterruptedException {
+        // 4 buckets x 20ms = 80ms per turn; 250ms lands in a bucket visited three times before
+        try (HashedTimingWheel wheel = wheel(4, 0)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            long scheduledAt = System.nanoTime();
+            wheel.schedule(fired::countDown, 250, TimeUnit.MILLISECONDS);
+
+            assertThat(fired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+            assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(System.nanoTime() - scheduledAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+        }
+    }
+
+    @Test
+    void cancelledTimersNeverFire() throws InterruptedException {
+        try (HashedTimingWheel wheel = wheel(8, 0)) {
+            AtomicBoolean ran = new AtomicBoolean();
+            HashedTimingWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 60, TimeUnit.MILLISECONDS);
+
+            assertThat(timeout.cancel()).isTrue();
+            assertThat(timeout.cancel()).isFalse();
+            assertThat(timeout.isCancelled()).isTrue();
+            assertThat(wheel.pending()).isZero();
+
+            TimeUnit.MILLISECONDS.sleep(150);
+            assertThat(ran).isFalse();
+            assertThat(timeout.isExpired()).isFalse();
+            assertThat(wheel.cancelledCount()).isEqualTo(1);
+            assertThat(wheel.expiredCount()).isZero();
+        }
+    }
+
+    @Test
+    void rejectsTimersBeyondMaxPending() {
+        try (HashedTimingWheel wheel = wheel(8, 2)) {
+            HashedTimingWheel.Timeout first = wheel.schedule(() -> { }, 1, TimeUnit.MINUTES);
+            wheel.schedule(() -> { }, 1, TimeUnit.MINUTES);
+
+            assertThatThrownBy(() -> wheel.schedule(() -> { }, 1, TimeUnit.MINUTES))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(wheel.pending()).isEqualTo(2);
+
+            first.cancel();
+            wheel.schedule(() -> { }, 1, TimeUnit.MINUTES);
+            assertThat(wheel.pending()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void failingLagRecorderDoesNotStopTheWheel() throws InterruptedException {
+        try (HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", TICK_MILLIS, TimeUnit.MILLISECONDS, 8, 0,
+                lag -> {
+                    throw new IllegalStateException("recorder down");
+                })) {
+            CountDownLatch fired = new CountDownLatch(2);
+            wheel.schedule(fired::countDown, 10, TimeUnit.MILLISECONDS);
+            wheel.schedule(fired::countDown, 60, TimeUnit.MILLISECONDS);
+
+            assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private static HashedTimingWheel wheel(int ticksPerWheel, long maxPending) {
+        return new HashedTimingWheel("test-wheel", TICK_MILLIS, TimeUnit.MILLISECONDS, ticksPerWheel, maxPending, null);
+    }
+}
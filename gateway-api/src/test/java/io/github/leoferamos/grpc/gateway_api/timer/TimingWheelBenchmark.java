@@ -0,0 +1,93 @@
+package io.github.leoferamos.grpc.gateway_api.timer;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules millions of timers spread over a few seconds, cancels half of them (as resolved
+ * orders would), then waits for the rest and reports schedule/cancel cost, heap per timer
+ * and how late timers fired.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.leoferamos.grpc.gateway_api.timer.TimingWheelBenchmark \
+ *     -Dexec.args="2000000 10"
+ * </pre>
+ */
+public class TimingWheelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int timers = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int spreadSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        long[] lags = new long[timers];
+        AtomicInteger fired = new AtomicInteger();
+        try (HashedTimingWheel wheel = new HashedTimingWheel("benchmark-timer", 100, TimeUnit.MILLISECONDS, 4096, 0,
+                nanos -> lags[fired.getAndIncrement()] = nanos)) {
+            Runnable task = () -> { };
+            HashedTimingWheel.Timeout[] timeouts = new HashedTimingWheel.Timeout[timers];
+            long spreadNanos = TimeUnit.SECONDS.toNanos(spreadSeconds);
+
+            long heapBefore = usedHeap(true);
+            long start = System.nanoTime();
+            for (int i = 0; i < timers; i++) {
+                long delay = ThreadLocalRandom.current().nextLong(spreadNanos);
+                timeouts[i] = wheel.schedule(task, delay, TimeUnit.NANOSECONDS);
+            }
+            long scheduleNanos = System.nanoTime() - start;
+            // No GC here: a full collection would stall the wheel thread and show up as fire lag
+            long heapAfter = usedHeap(false);
+
+            start = System.nanoTime();
+            int cancelled = 0;
+            for (int i = 0; i < timers; i += 2) {
+                if (timeouts[i].cancel()) {
+                    cancelled++;
+                }
+            }
+            long cancelNanos = System.nanoTime() - start;
+            // Timers due while millions were being scheduled and cancelled wait behind that burst
+            int firedDuringLoad = fired.get();
+
+            long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(spreadSeconds + 30L);
+            while (fired.get() < timers - cancelled && System.nanoTime() < waitUntil) {
+                Thread.sleep(100);
+            }
+
+            int n = fired.get();
+            long[] sorted = Arrays.copyOf(lags, n);
+            Arrays.sort(sorted);
+            long[] steady = Arrays.copyOfRange(lags, firedDuringLoad, n);
+            Arrays.sort(steady);
+            System.out.printf("timers:       %,d scheduled over %ds, %,d cancelled, %,d fired, %,d pending%n",
+                    timers, spreadSeconds, cancelled, n, wheel.pending());
+            System.out.printf("schedule:     %.0f ns/timer (%,.0f timers/s)%n",
+                    (double) scheduleNanos / timers, timers / (scheduleNanos / 1e9));
+            System.out.printf("cancel:       %.0f ns/timer%n", (double) cancelNanos / Math.max(1, timers / 2));
+            System.out.printf("heap:         ~%d bytes/timer%n", (heapAfter - heapBefore) / timers);
+            System.out.printf("fire lag:     p50 %.1f ms, p99 %.1f ms, max %.1f ms (tick %d ms)%n",
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0),
+                    TimeUnit.NANOSECONDS.toMillis(wheel.tickNanos()));
+            System.out.printf("  after load: p50 %.1f ms, p99 %.1f ms, max %.1f ms (%,d timers)%n",
+                    percentileMillis(steady, 0.50), percentileMillis(steady, 0.99), percentileMillis(steady, 1.0),
+                    steady.length);
+        }
+    }
+
+    private static long usedHeap(boolean collect) {
+        Runtime rt = Runtime.getRuntime();
+        if (collect) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) ((sorted.length - 1) * p)] / 1e6;
+    }
+}
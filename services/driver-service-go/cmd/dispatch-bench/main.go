@@ -0,0 +1,216 @@
+// Command dispatch-bench compares per-request driver assignment with batch dispatch.
+//
+// Orders arrive open-loop at -rate per second for -duration at random pickups around the
+// city; every assigned driver is busy for -trip and then becomes available again at a random
+// spot. For each mode it reports assignments per second, average pickup distance and time to
+// assignment. Generate the stubs first (the Dockerfile does the same), then run:
+//
+//	protoc --go_out=./proto --go_opt=paths=source_relative \
+//	       --go-grpc_out=./proto --go-grpc_opt=paths=source_relative \
+//	       --proto_path=../../proto ../../proto/driver.proto
+//	go run ./cmd/dispatch-bench -drivers 1000 -rate 400
+package main
+
+import (
+	"context"
+	"flag"
+	"fmt"
+	"io"
+	"log"
+	"math/rand"
+	"os"
+	"sort"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/dispatch"
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/models"
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/repository"
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/server"
+	pb "github.com/leoferamos/grpc-real-time-order-platform/driver-service/proto"
+)
+
+const (
+	centerLat = -23.5505
+	centerLon = -46.6333
+	// spreadDegrees is the half-width of the simulated city (~11 km)
+	spreadDegrees = 0.1
+)
+
+type outcome struct {
+	assigned int
+	totalKm  float64
+	waits    []time.Duration
+}
+
+func (o *outcome) add(km float64, wait time.Duration) {
+	o.assigned++
+	o.totalKm += km
+	o.waits = append(o.waits, wait)
+}
+
+func main() {
+	drivers := flag.Int("drivers", 1000, "simulated drivers")
+	rate := flag.Int("rate", 400, "orders per second")
+	duration := flag.Duration("duration", 10*time.Second, "how long orders arrive")
+	trip := flag.Duration("trip", 2*time.Second, "how long an assigned driver stays busy")
+	windows := flag.String("windows", "50ms,200ms,500ms", "batch windows to compare")
+	flag.Parse()
+
+	// The service logs every assignment; keep the report readable
+	log.SetOutput(io.Discard)
+
+	fmt.Printf("%d drivers, %d orders/s for %s, trips of %s\n\n", *drivers, *rate, *duration, *trip)
+	fmt.Printf("%-22s %8s %9s %12s %10s %10s %10s\n",
+		"mode", "orders", "assigned", "assigned/s", "avg-km", "p50-wait", "p99-wait")
+
+	result, orders := runPerRequest(*drivers, *rate, *duration, *trip)
+	report("per-request", *duration, result, orders)
+	for _, w := range strings.Split(*windows, ",") {
+		window, err := time.ParseDuration(strings.TrimSpace(w))
+		if err != nil {
+			fmt.Fprintf(os.Stderr, "invalid window %q\n", w)
+			os.Exit(2)
+		}
+		result, orders = runBatch(*drivers, *rate, *duration, *trip, window)
+		report("batch "+window.String(), *duration, result, orders)
+	}
+}
+
+// runPerRequest drives the per-request AssignDriver path, one goroutine per order as concurrent
+// RPCs would; orders that get NO_DRIVERS_AVAILABLE are lost
+func runPerRequest(drivers, rate int, duration, trip time.Duration) (outcome, int) {
+	repo := seededRepository(drivers)
+	svc := server.NewDriverServiceServer(repo)
+	rng := rand.New(rand.NewSource(7))
+
+	var mu sync.Mutex
+	var result outcome
+	var wg sync.WaitGroup
+	orders := arrive(rng, rate, duration, func(o dispatch.Order) {
+		wg.Add(1)
+		go func() {
+			defer wg.Done()
+			start := time.Now()
+			resp, err := svc.AssignDriver(context.Background(), &pb.AssignDriverRequest{
+				OrderId:        o.ID,
+				PickupLocation: &pb.Location{Latitude: o.Latitude, Longitude: o.Longitude},
+			})
+			if err != nil || resp.StatusCode != pb.AssignmentStatus_ASSIGNMENT_STATUS_ASSIGNED {
+				return
+			}
+			mu.Lock()
+			result.add(resp.PickupDistanceKm, time.Since(start))
+			mu.Unlock()
+			releaseAfter(repo, resp.DriverId, trip)
+		}()
+	})
+	wg.Wait()
+	return result, orders
+}
+
+// runBatch drives a dispatcher directly, counting late matches of orders that first got no driver
+func runBatch(drivers, rate int, duration, trip, window time.Duration) (outcome, int) {
+	repo := seededRepository(drivers)
+	cfg := dispatch.DefaultConfig()
+	cfg.Window = window
+	d := dispatch.NewDispatcher(cfg, repo, nil)
+	matches := d.Subscribe()
+	d.Start()
+	rng := rand.New(rand.NewSource(7))
+
+	var submitted sync.Map
+	var result outcome
+	collected := make(chan struct{})
+	go func() {
+		defer close(collected)
+		for r := range matches {
+			if start, ok := submitted.Load(r.OrderID); ok {
+				result.add(r.PickupKm, time.Since(start.(time.Time)))
+			}
+			releaseAfter(repo, r.Driver.ID, trip)
+		}
+	}()
+
+	orders := arrive(rng, rate, duration, func(o dispatch.Order) {
+		submitted.Store(o.ID, time.Now())
+		d.Submit(o)
+	})
+	// Let the last batches run, then stop counting
+	time.Sleep(2 * window)
+	d.Unsubscribe(matches)
+	d.Stop()
+	close(matches)
+	<-collected
+	return result, orders
+}
+
+// arrive calls submit at a steady rate and returns the number of orders submitted
+func arrive(rng *rand.Rand, rate int, duration time.Duration, submit func(dispatch.Order)) int {
+	interval := time.Second / time.Duration(rate)
+	deadline := time.Now().Add(duration)
+	next := time.Now()
+	n := 0
+	for time.Now().Before(deadline) {
+		lat, lon := randomPoint(rng)
+		submit(dispatch.Order{ID: fmt.Sprintf("order-%d", n), Latitude: lat, Longitude: lon})
+		n++
+		next = next.Add(interval)
+		time.Sleep(time.Until(next))
+	}
+	return n
+}
+
+func seededRepository(drivers int) *repository.DriverRepository {
+	rng := rand.New(rand.NewSource(42))
+	pool := make([]*models.Driver, drivers)
+	for i := range pool {
+		lat, lon := randomPoint(rng)
+		pool[i] = &models.Driver{
+			ID:           fmt.Sprintf("sim-%04d", i),
+			Name:         fmt.Sprintf("Sim Driver %d", i),
+			Vehicle:      "Sim",
+			LicensePlate: fmt.Sprintf("SIM-%04d", i),
+			Latitude:     lat,
+			Longitude:    lon,
+			Available:    true,
+		}
+	}
+	return repository.NewDriverRepositoryWith(pool)
+}
+
+var releaseRng = struct {
+	sync.Mutex
+	*rand.Rand
+}{Rand: rand.New(rand.NewSource(99))}
+
+func releaseAfter(repo *repository.DriverRepository, driverID string, trip time.Duration) {
+	time.AfterFunc(trip, func() {
+		releaseRng.Lock()
+		lat, lon := randomPoint(releaseRng.Rand)
+		releaseRng.Unlock()
+		_ = repo.ReleaseDriver(driverID, lat, lon)
+	})
+}
+
+func randomPoint(rng *rand.Rand) (float64, float64) {
+	return centerLat + (rng.Float64()*2-1)*spreadDegrees, centerLon + (rng.Float64()*2-1)*spreadDegrees
+}
+
+func report(mode string, duration time.Duration, o outcome, orders int) {
+	avgKm := 0.0
+	if o.assigned > 0 {
+		avgKm = o.totalKm / float64(o.assigned)
+	}
+	sort.Slice(o.waits, func(i, j int) bool { return o.waits[i] < o.waits[j] })
+	fmt.Printf("%-22s %8d %9d %12.1f %10.2f %10s %10s\n", mode, orders, o.assigned,
+		float64(o.assigned)/duration.Seconds(), avgKm, percentile(o.waits, 0.50), percentile(o.waits, 0.99))
+}
+
+func percentile(sorted []time.Duration, p float64) time.Duration {
+	if len(sorted) == 0 {
+		return 0
+	}
+	return sorted[int(float64(len(sorted)-1)*p)].Round(time.Millisecond)
+}
@@ -6,11 +6,14 @@ import (
 	"log"
 	"net"
 	"os"
+	"strconv"
+	"time"
 
 	"google.golang.org/grpc"
 	"google.golang.org/grpc/credentials"
 	"google.golang.org/grpc/reflection"
 
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/dispatch"
 	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/repository"
 	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/server"
 	pb "github.com/leoferamos/grpc-real-time-order-platform/driver-service/proto"
@@ -75,6 +78,14 @@ func main() {
 	grpcServer := grpc.NewServer(grpc.Creds(creds))
 	driverService := server.NewDriverServiceServer(repo)
 
+	// DISPATCH_MODE=batch collects orders for DISPATCH_WINDOW and assigns them together
+	if os.Getenv("DISPATCH_MODE") == "batch" {
+		cfg := dispatchConfigFromEnv()
+		driverService.EnableBatchDispatch(cfg)
+		log.Printf("Batch dispatch enabled: window=%s, pending TTL=%s, candidates per order=%d",
+			cfg.Window, cfg.PendingTTL, cfg.MaxCandidates)
+	}
+
 	pb.RegisterDriverServiceServer(grpcServer, driverService)
 
 	// Enable reflection for debugging with grpcurl
@@ -84,8 +95,37 @@ func main() {
 	log.Println("Endpoints available:")
 	log.Println("   - AssignDriver(AssignDriverRequest) → AssignDriverResponse")
 	log.Println("   - GetDriverStatus(DriverStatusRequest) → DriverStatusResponse")
+	log.Println("   - WatchAvailability(WatchAvailabilityRequest) → stream AvailabilityUpdate")
+	log.Println("   - CancelAssignment(CancelAssignmentRequest) → CancelAssignmentResponse")
 
 	if err := grpcServer.Serve(lis); err != nil {
 		log.Fatalf("Failed to serve: %v", err)
 	}
 }
+
+// dispatchConfigFromEnv reads DISPATCH_WINDOW, DISPATCH_PENDING_TTL and DISPATCH_MAX_CANDIDATES
+func dispatchConfigFromEnv() dispatch.Config {
+	cfg := dispatch.DefaultConfig()
+	if v := os.Getenv("DISPATCH_WINDOW"); v != "" {
+		d, err := time.ParseDuration(v)
+		if err != nil || d <= 0 {
+			log.Fatalf("Invalid DISPATCH_WINDOW %q", v)
+		}
+		cfg.Window = d
+	}
+	if v := os.Getenv("DISPATCH_PENDING_TTL"); v != "" {
+		d, err := time.ParseDuration(v)
+		if err != nil || d <= 0 {
+			log.Fatalf("Invalid DISPATCH_PENDING_TTL %q", v)
+		}
+		cfg.PendingTTL = d
+	}
+	if v := os.Getenv("DISPATCH_MAX_CANDIDATES"); v != "" {
+		n, err := strconv.Atoi(v)
+		if err != nil || n < 0 {
+			log.Fatalf("Invalid DISPATCH_MAX_CANDIDATES %q", v)
+		}
+		cfg.MaxCandidates = n
+	}
+	return cfg
+}
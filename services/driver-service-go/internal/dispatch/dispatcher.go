@@ -0,0 +1,284 @@
+package dispatch
+
+import (
+	"log"
+	"sync"
+	"time"
+
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/models"
+)
+
+// Result is the outcome of dispatching one order. Driver is nil when no driver was matched.
+type Result struct {
+	OrderID  string
+	Driver   *models.Driver
+	PickupKm float64
+}
+
+// Config controls batch dispatch
+type Config struct {
+	// Window is how long orders are collected before a batch is matched
+	Window time.Duration
+	// PendingTTL is how long an unmatched order keeps being reconsidered in later batches
+	PendingTTL time.Duration
+	// ResultTTL is how long a match is remembered, so a retried submit gets the same driver
+	ResultTTL time.Duration
+	// MaxCandidates bounds the drivers each order considers (nearest first); 0 = all
+	MaxCandidates int
+}
+
+// DefaultConfig returns the settings used when nothing is configured
+func DefaultConfig() Config {
+	return Config{
+		Window:        200 * time.Millisecond,
+		PendingTTL:    2 * time.Minute,
+		ResultTTL:     5 * time.Minute,
+		MaxCandidates: 16,
+	}
+}
+
+// DriverPool is the driver state the dispatcher matches against
+type DriverPool interface {
+	AvailableDrivers() []models.Driver
+	ClaimDriver(driverID string) bool
+	ReleaseDriver(driverID string, lat, lon float64) error
+}
+
+type pendingOrder struct {
+	order   Order
+	since   time.Time
+	waiters []chan Result
+}
+
+type matchedOrder struct {
+	result Result
+	at     time.Time
+}
+
+// Dispatcher collects orders for Window, then assigns the whole batch at once with Match.
+// Orders left unmatched stay pending and are retried every batch until PendingTTL expires;
+// every match, early or late, is published to subscribers.
+type Dispatcher struct {
+	cfg      Config
+	pool     DriverPool
+	onChange func()
+
+	mu      sync.Mutex
+	pending map[string]*pendingOrder
+	matched map[string]matchedOrder
+	subs    map[chan Result]struct{}
+
+	stop chan struct{}
+	done chan struct{}
+}
+
+// NewDispatcher creates a dispatcher; onChange (optional) runs after drivers are claimed or released
+func NewDispatcher(cfg Config, pool DriverPool, onChange func()) *Dispatcher {
+	return &Dispatcher{
+		cfg:      cfg,
+		pool:     pool,
+		onChange: onChange,
+		pending:  make(map[string]*pendingOrder),
+		matched:  make(map[string]matchedOrder),
+		subs:     make(map[chan Result]struct{}),
+		stop:     make(chan struct{}),
+		done:     make(chan struct{}),
+	}
+}
+
+// Start runs the batch loop in the background
+func (d *Dispatcher) Start() {
+	go d.run()
+}
+
+// Stop ends the batch loop; pending waiters are answered with no driver
+func (d *Dispatcher) Stop() {
+	close(d.stop)
+	<-d.done
+}
+
+// Submit queues an order for the next batch. The returned channel receives exactly one Result:
+// the assignment, or a Result with a nil Driver if the batch could not match the order. A
+// resubmitted order joins its pending entry, or gets its existing match back immediately.
+func (d *Dispatcher) Submit(order Order) <-chan Result {
+	ch := make(chan Result, 1)
+
+	d.mu.Lock()
+	defer d.mu.Unlock()
+
+	if m, ok := d.matched[order.ID]; ok {
+		ch <- m.result
+		return ch
+	}
+	if p, ok := d.pending[order.ID]; ok {
+		p.order = order
+		p.waiters = append(p.waiters, ch)
+		return ch
+	}
+	d.pending[order.ID] = &pendingOrder{order: order, since: time.Now(), waiters: []chan Result{ch}}
+	return ch
+}
+
+// Cancel drops an order: its waiters get no driver and later batches skip it. A driver already
+// matched to it is released; it returns whether there was one.
+func (d *Dispatcher) Cancel(orderID string) bool {
+	d.mu.Lock()
+	if p, ok := d.pending[orderID]; ok {
+		answer(p, Result{OrderID: orderID})
+		delete(d.pending, orderID)
+	}
+	m, matched := d.matched[orderID]
+	delete(d.matched, orderID)
+	d.mu.Unlock()
+
+	if !matched {
+		return false
+	}
+	d.release(*m.result.Driver)
+	return true
+}
+
+// Pending returns the number of orders waiting for a driver
+func (d *Dispatcher) Pending() int {
+	d.mu.Lock()
+	defer d.mu.Unlock()
+	return len(d.pending)
+}
+
+// Subscribe returns a channel receiving every match; cmd/dispatch-bench counts late matches
+// through it. Slow subscribers miss results rather than stalling dispatch.
+func (d *Dispatcher) Subscribe() chan Result {
+	ch := make(chan Result, 256)
+	d.mu.Lock()
+	d.subs[ch] = struct{}{}
+	d.mu.Unlock()
+	return ch
+}
+
+// Unsubscribe stops delivering matches to ch
+func (d *Dispatcher) Unsubscribe(ch chan Result) {
+	d.mu.Lock()
+	delete(d.subs, ch)
+	d.mu.Unlock()
+}
+
+func (d *Dispatcher) run() {
+	defer close(d.done)
+	ticker := time.NewTicker(d.cfg.Window)
+	defer ticker.Stop()
+
+	for {
+		select {
+		case <-d.stop:
+			d.mu.Lock()
+			for id, p := range d.pending {
+				answer(p, Result{OrderID: id})
+			}
+			d.pending = make(map[string]*pendingOrder)
+			d.mu.Unlock()
+			return
+		case now := <-ticker.C:
+			d.dispatchBatch(now)
+		}
+	}
+}
+
+func (d *Dispatcher) dispatchBatch(now time.Time) {
+	d.mu.Lock()
+	orders := make([]Order, 0, len(d.pending))
+	for id, p := range d.pending {
+		if now.Sub(p.since) > d.cfg.PendingTTL {
+			answer(p, Result{OrderID: id})
+			delete(d.pending, id)
+			log.Printf("[Dispatch] Order %s expired after %s without a driver", id, d.cfg.PendingTTL)
+			continue
+		}
+		orders = append(orders, p.order)
+	}
+	for id, m := range d.matched {
+		if now.Sub(m.at) > d.cfg.ResultTTL {
+			delete(d.matched, id)
+		}
+	}
+	d.mu.Unlock()
+
+	if len(orders) == 0 {
+		return
+	}
+
+	start := time.Now()
+	drivers := d.pool.AvailableDrivers()
+	assignments := Match(orders, drivers, d.cfg.MaxCandidates)
+
+	// While batch dispatch is on this loop is the only claimer, so claims should all win; a pair
+	// whose driver is gone anyway stays pending rather than sharing the driver
+	claimed := assignments[:0]
+	for _, a := range assignments {
+		if d.pool.ClaimDriver(a.Driver.ID) {
+			claimed = append(claimed, a)
+		}
+	}
+	if len(claimed) > 0 && d.onChange != nil {
+		d.onChange()
+	}
+
+	d.mu.Lock()
+	defer d.mu.Unlock()
+
+	var totalKm float64
+	assigned := 0
+	for _, a := range claimed {
+		p, ok := d.pending[a.OrderID]
+		if !ok {
+			// Cancelled while the batch was being matched
+			d.release(a.Driver)
+			continue
+		}
+		driver := a.Driver
+		result := Result{OrderID: a.OrderID, Driver: &driver, PickupKm: a.PickupKm}
+		answer(p, result)
+		delete(d.pending, a.OrderID)
+		d.matched[a.OrderID] = matchedOrder{result: result, at: now}
+		for sub := range d.subs {
+			select {
+			case sub <- result:
+			default:
+				log.Printf("[Dispatch] Subscriber too slow, dropped result for order %s", a.OrderID)
+			}
+		}
+		totalKm += a.PickupKm
+		assigned++
+	}
+	// Still pending: tell the current waiters "not yet" and keep the order for the next batch
+	for _, o := range orders {
+		if p, ok := d.pending[o.ID]; ok {
+			answer(p, Result{OrderID: o.ID})
+		}
+	}
+
+	avgKm := 0.0
+	if assigned > 0 {
+		avgKm = totalKm / float64(assigned)
+	}
+	log.Printf("[Dispatch] Batch: %d orders, %d drivers, %d assigned (avg pickup %.2f km), %d pending, took %s",
+		len(orders), len(drivers), assigned, avgKm, len(d.pending), time.Since(start))
+}
+
+// release makes a claimed driver available again where it is
+func (d *Dispatcher) release(driver models.Driver) {
+	if err := d.pool.ReleaseDriver(driver.ID, driver.Latitude, driver.Longitude); err != nil {
+		log.Printf("[Dispatch] Failed to release driver %s: %v", driver.ID, err)
+		return
+	}
+	if d.onChange != nil {
+		d.onChange()
+	}
+}
+
+// answer delivers r to every waiter of p; each waiter channel receives exactly one result
+func answer(p *pendingOrder, r Result) {
+	for _, w := range p.waiters {
+		w <- r
+	}
+	p.waiters = nil
+}
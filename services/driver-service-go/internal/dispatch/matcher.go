@@ -0,0 +1,96 @@
+package dispatch
+
+import (
+	"sort"
+
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/models"
+)
+
+// Order is a pickup waiting for a driver
+type Order struct {
+	ID        string
+	Latitude  float64
+	Longitude float64
+}
+
+// Assignment pairs an order with the driver chosen for it
+type Assignment struct {
+	OrderID  string
+	Driver   models.Driver
+	PickupKm float64
+}
+
+type candidate struct {
+	order  int
+	driver int
+	km     float64
+}
+
+// Match assigns drivers to a batch of orders, greedily minimizing total pickup distance:
+// (order, driver) pairs are taken shortest first whenever both are still free. Each order
+// only considers its maxCandidates nearest drivers (0 = all); orders whose candidates were
+// all taken fall back to the nearest driver still free. Orders beyond the number of drivers
+// stay unmatched.
+func Match(orders []Order, drivers []models.Driver, maxCandidates int) []Assignment {
+	if len(orders) == 0 || len(drivers) == 0 {
+		return nil
+	}
+	if maxCandidates <= 0 || maxCandidates > len(drivers) {
+		maxCandidates = len(drivers)
+	}
+
+	candidates := make([]candidate, 0, len(orders)*maxCandidates)
+	perOrder := make([]candidate, len(drivers))
+	for oi, o := range orders {
+		for di := range drivers {
+			perOrder[di] = candidate{
+				order:  oi,
+				driver: di,
+				km:     models.DistanceKm(o.Latitude, o.Longitude, drivers[di].Latitude, drivers[di].Longitude),
+			}
+		}
+		if maxCandidates < len(drivers) {
+			sort.Slice(perOrder, func(i, j int) bool { return perOrder[i].km < perOrder[j].km })
+		}
+		candidates = append(candidates, perOrder[:maxCandidates]...)
+	}
+	sort.Slice(candidates, func(i, j int) bool { return candidates[i].km < candidates[j].km })
+
+	orderTaken := make([]bool, len(orders))
+	driverTaken := make([]bool, len(drivers))
+	assignments := make([]Assignment, 0, min(len(orders), len(drivers)))
+	for _, c := range candidates {
+		if orderTaken[c.order] || driverTaken[c.driver] {
+			continue
+		}
+		orderTaken[c.order] = true
+		driverTaken[c.driver] = true
+		assignments = append(assignments, Assignment{OrderID: orders[c.order].ID, Driver: drivers[c.driver], PickupKm: c.km})
+		if len(assignments) == len(orders) || len(assignments) == len(drivers) {
+			return assignments
+		}
+	}
+
+	// Candidate lists exhausted for some orders: give them the nearest driver still free
+	for oi, o := range orders {
+		if orderTaken[oi] {
+			continue
+		}
+		best, bestKm := -1, 0.0
+		for di := range drivers {
+			if driverTaken[di] {
+				continue
+			}
+			km := models.DistanceKm(o.Latitude, o.Longitude, drivers[di].Latitude, drivers[di].Longitude)
+			if best < 0 || km < bestKm {
+				best, bestKm = di, km
+			}
+		}
+		if best < 0 {
+			break
+		}
+		driverTaken[best] = true
+		assignments = append(assignments, Assignment{OrderID: o.ID, Driver: drivers[best], PickupKm: bestKm})
+	}
+	return assignments
+}
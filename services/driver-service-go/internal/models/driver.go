@@ -1,5 +1,10 @@
 package models
 
+import (
+	"fmt"
+	"math"
+)
+
 // Driver represents a driver in the system
 type Driver struct {
 	ID           string
@@ -16,3 +21,18 @@ type Location struct {
 	Latitude  float64
 	Longitude float64
 }
+
+// GeoCell returns the id of the lat/lon grid cell containing the point, e.g. "-471:-933"
+func GeoCell(lat, lon, cellSizeDegrees float64) string {
+	return fmt.Sprintf("%d:%d", int64(math.Floor(lat/cellSizeDegrees)), int64(math.Floor(lon/cellSizeDegrees)))
+}
+
+// DistanceKm returns the great-circle (haversine) distance between two points in kilometers
+func DistanceKm(lat1, lon1, lat2, lon2 float64) float64 {
+	const earthRadiusKm = 6371.0
+	dLat := (lat2 - lat1) * math.Pi / 180
+	dLon := (lon2 - lon1) * math.Pi / 180
+	a := math.Sin(dLat/2)*math.Sin(dLat/2) +
+		math.Cos(lat1*math.Pi/180)*math.Cos(lat2*math.Pi/180)*math.Sin(dLon/2)*math.Sin(dLon/2)
+	return 2 * earthRadiusKm * math.Asin(math.Sqrt(a))
+}
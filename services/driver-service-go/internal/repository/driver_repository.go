@@ -15,10 +15,6 @@ type DriverRepository struct {
 
 // NewDriverRepository creates a new driver repository with initial test data
 func NewDriverRepository() *DriverRepository {
-	repo := &DriverRepository{
-		drivers: make(map[string]*models.Driver),
-	}
-
 	// Initialize with test drivers
 	testDrivers := []*models.Driver{
 		{
@@ -68,7 +64,16 @@ func NewDriverRepository() *DriverRepository {
 		},
 	}
 
-	for _, driver := range testDrivers {
+	return NewDriverRepositoryWith(testDrivers)
+}
+
+// NewDriverRepositoryWith creates a driver repository holding the given drivers
+func NewDriverRepositoryWith(drivers []*models.Driver) *DriverRepository {
+	repo := &DriverRepository{
+		drivers: make(map[string]*models.Driver, len(drivers)),
+	}
+
+	for _, driver := range drivers {
 		repo.drivers[driver.ID] = driver
 	}
 
@@ -116,6 +121,71 @@ func (r *DriverRepository) SetDriverAvailability(driverID string, available bool
 	return nil
 }
 
+// AvailableDrivers returns a copy of every available driver, safe to read without the lock
+func (r *DriverRepository) AvailableDrivers() []models.Driver {
+	r.mu.RLock()
+	defer r.mu.RUnlock()
+
+	drivers := make([]models.Driver, 0, len(r.drivers))
+	for _, driver := range r.drivers {
+		if driver.Available {
+			drivers = append(drivers, *driver)
+		}
+	}
+
+	return drivers
+}
+
+// ClaimDriver marks an available driver as unavailable; it returns false if the driver was
+// already taken, so two dispatch paths can never hand out the same driver
+func (r *DriverRepository) ClaimDriver(driverID string) bool {
+	r.mu.Lock()
+	defer r.mu.Unlock()
+
+	driver, exists := r.drivers[driverID]
+	if !exists || !driver.Available {
+		return false
+	}
+
+	driver.Available = false
+	return true
+}
+
+// ReleaseDriver makes a driver available again at a new location (e.g. after a delivery).
+// Batch dispatch frees drivers matched to cancelled orders through it; cmd/dispatch-bench ends
+// its simulated trips with it.
+func (r *DriverRepository) ReleaseDriver(driverID string, lat, lon float64) error {
+	r.mu.Lock()
+	defer r.mu.Unlock()
+
+	driver, exists := r.drivers[driverID]
+	if !exists {
+		return fmt.Errorf("driver not found: %s", driverID)
+	}
+
+	driver.Latitude = lat
+	driver.Longitude = lon
+	driver.Available = true
+	return nil
+}
+
+// AvailableCountsByCell counts available drivers per geocell
+func (r *DriverRepository) AvailableCountsByCell(cellSizeDegrees float64) (map[string]int32, int32) {
+	r.mu.RLock()
+	defer r.mu.RUnlock()
+
+	counts := make(map[string]int32)
+	var total int32
+	for _, driver := range r.drivers {
+		if driver.Available {
+			counts[models.GeoCell(driver.Latitude, driver.Longitude, cellSizeDegrees)]++
+			total++
+		}
+	}
+
+	return counts, total
+}
+
 // GetAllDrivers returns all drivers
 func (r *DriverRepository) GetAllDrivers() []*models.Driver {
 	r.mu.RLock()
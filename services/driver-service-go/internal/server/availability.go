@@ -0,0 +1,99 @@
+package server
+
+import (
+	"log"
+	"sync"
+	"time"
+
+	pb "github.com/leoferamos/grpc-real-time-order-platform/driver-service/proto"
+)
+
+const (
+	// CellSizeDegrees is the geocell edge used for availability counts (~5.5 km of latitude)
+	CellSizeDegrees = 0.05
+	// availabilityHeartbeat re-sends the snapshot so watchers can detect a stale view
+	availabilityHeartbeat = 5 * time.Second
+)
+
+// availabilityHub wakes up WatchAvailability streams when driver availability changes.
+// Each watcher has a 1-slot channel, so bursts of changes coalesce into one snapshot.
+type availabilityHub struct {
+	mu       sync.Mutex
+	watchers map[chan struct{}]struct{}
+}
+
+func newAvailabilityHub() *availabilityHub {
+	return &availabilityHub{
+		watchers: make(map[chan struct{}]struct{}),
+	}
+}
+
+func (h *availabilityHub) subscribe() chan struct{} {
+	ch := make(chan struct{}, 1)
+	h.mu.Lock()
+	h.watchers[ch] = struct{}{}
+	h.mu.Unlock()
+	return ch
+}
+
+func (h *availabilityHub) unsubscribe(ch chan struct{}) {
+	h.mu.Lock()
+	delete(h.watchers, ch)
+	h.mu.Unlock()
+}
+
+func (h *availabilityHub) notify() {
+	h.mu.Lock()
+	defer h.mu.Unlock()
+	for ch := range h.watchers {
+		select {
+		case ch <- struct{}{}:
+		default:
+		}
+	}
+}
+
+// WatchAvailability streams available-driver counts per geocell
+func (s *DriverServiceServer) WatchAvailability(req *pb.WatchAvailabilityRequest, stream pb.DriverService_WatchAvailabilityServer) error {
+	log.Printf("[DriverService] Availability watch opened: region=%q", req.GetRegion())
+
+	changed := s.hub.subscribe()
+	defer s.hub.unsubscribe(changed)
+
+	ticker := time.NewTicker(availabilityHeartbeat)
+	defer ticker.Stop()
+
+	for {
+		if err := stream.Send(s.availabilitySnapshot(req.GetRegion())); err != nil {
+			log.Printf("[DriverService] Availability watch closed: %v", err)
+			return err
+		}
+		select {
+		case <-stream.Context().Done():
+			log.Printf("[DriverService] Availability watch closed: region=%q", req.GetRegion())
+			return nil
+		case <-changed:
+		case <-ticker.C:
+		}
+	}
+}
+
+func (s *DriverServiceServer) availabilitySnapshot(region string) *pb.AvailabilityUpdate {
+	counts, total := s.repo.AvailableCountsByCell(CellSizeDegrees)
+
+	update := &pb.AvailabilityUpdate{
+		TotalAvailable:  total,
+		CellSizeDegrees: CellSizeDegrees,
+		Timestamp:       time.Now().UnixMilli(),
+	}
+	for cell, n := range counts {
+		if region != "" && cell != region {
+			continue
+		}
+		update.Regions = append(update.Regions, &pb.RegionAvailability{
+			Region:           cell,
+			AvailableDrivers: n,
+		})
+	}
+	return update
+}
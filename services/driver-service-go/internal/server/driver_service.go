@@ -4,64 +4,155 @@ import (
 	"context"
 	"fmt"
 	"log"
+	"math"
+	"sort"
 
+	"google.golang.org/grpc/status"
+
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/dispatch"
+	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/models"
 	"github.com/leoferamos/grpc-real-time-order-platform/driver-service/internal/repository"
 	pb "github.com/leoferamos/grpc-real-time-order-platform/driver-service/proto"
 )
 
+// averageSpeedKmh converts pickup distance into an ETA for batch-dispatched orders
+const averageSpeedKmh = 25.0
+
 // DriverServiceServer implements the gRPC DriverService
 type DriverServiceServer struct {
 	pb.UnimplementedDriverServiceServer
-	repo *repository.DriverRepository
+	repo       *repository.DriverRepository
+	hub        *availabilityHub
+	dispatcher *dispatch.Dispatcher // nil unless batch dispatch is enabled
 }
 
 // NewDriverServiceServer creates a new driver service server
 func NewDriverServiceServer(repo *repository.DriverRepository) *DriverServiceServer {
 	return &DriverServiceServer{
 		repo: repo,
+		hub:  newAvailabilityHub(),
 	}
 }
 
+// EnableBatchDispatch switches AssignDriver from per-request matching to batch dispatch
+func (s *DriverServiceServer) EnableBatchDispatch(cfg dispatch.Config) {
+	s.dispatcher = dispatch.NewDispatcher(cfg, s.repo, s.hub.notify)
+	s.dispatcher.Start()
+}
+
 // AssignDriver assigns the nearest available driver to an order
 func (s *DriverServiceServer) AssignDriver(ctx context.Context, req *pb.AssignDriverRequest) (*pb.AssignDriverResponse, error) {
 	log.Printf("[DriverService] Assigning driver for orderId=%s, location=(%.4f, %.4f)",
 		req.OrderId, req.PickupLocation.Latitude, req.PickupLocation.Longitude)
 
-	// Find nearest available driver
-	driver, err := s.repo.FindNearestAvailableDriver(
-		req.PickupLocation.Latitude,
-		req.PickupLocation.Longitude,
-	)
+	if s.dispatcher != nil {
+		return s.assignBatched(ctx, req)
+	}
 
-	if err != nil {
-		log.Printf("[DriverService] No drivers available: %v", err)
-		return &pb.AssignDriverResponse{
-			DriverId:             "",
-			DriverName:           "",
-			Vehicle:              "",
-			EstimatedTimeMinutes: 0,
-			Status:               "NO_DRIVERS_AVAILABLE",
-		}, nil
+	driver, pickupKm, ok := s.claimNearestDriver(req.PickupLocation.Latitude, req.PickupLocation.Longitude)
+	if !ok {
+		log.Printf("[DriverService] No drivers available for orderId=%s", req.OrderId)
+		return noDriverResponse(req.OrderId), nil
 	}
+	s.hub.notify()
 
 	estimatedTime := int32(5)
 
-	// Mark driver as unavailable (assigned to order)
-	err = s.repo.SetDriverAvailability(driver.ID, false)
-	if err != nil {
-		log.Printf("[DriverService] Failed to update driver availability: %v", err)
-	}
-
 	log.Printf("[DriverService] Driver assigned: driverId=%s, name=%s, vehicle=%s %s, ETA=%d min",
 		driver.ID, driver.Name, driver.Vehicle, driver.LicensePlate, estimatedTime)
 
+	return assignedResponse(req.OrderId, driver, pickupKm, estimatedTime), nil
+}
+
+// claimNearestDriver claims the available driver nearest to the pickup. A concurrent request can
+// claim a candidate between the snapshot and the claim; the next-nearest one is tried then, so
+// no driver is ever handed to two orders.
+func (s *DriverServiceServer) claimNearestDriver(lat, lon float64) (*models.Driver, float64, bool) {
+	type candidate struct {
+		driver models.Driver
+		km     float64
+	}
+	available := s.repo.AvailableDrivers()
+	candidates := make([]candidate, len(available))
+	for i, d := range available {
+		candidates[i] = candidate{driver: d, km: models.DistanceKm(lat, lon, d.Latitude, d.Longitude)}
+	}
+	sort.Slice(candidates, func(i, j int) bool { return candidates[i].km < candidates[j].km })
+
+	for _, c := range candidates {
+		if s.repo.ClaimDriver(c.driver.ID) {
+			driver := c.driver
+			driver.Available = false
+			return &driver, c.km, true
+		}
+	}
+	return nil, 0, false
+}
+
+// assignBatched queues the order for the next dispatch batch and waits for its result.
+// An order the batch cannot match stays queued; a later match is returned to any retried
+// AssignDriver for the same order.
+func (s *DriverServiceServer) assignBatched(ctx context.Context, req *pb.AssignDriverRequest) (*pb.AssignDriverResponse, error) {
+	results := s.dispatcher.Submit(dispatch.Order{
+		ID:        req.OrderId,
+		Latitude:  req.PickupLocation.Latitude,
+		Longitude: req.PickupLocation.Longitude,
+	})
+
+	select {
+	case r := <-results:
+		return batchResponse(r), nil
+	case <-ctx.Done():
+		return nil, status.FromContextError(ctx.Err()).Err()
+	}
+}
+
+// CancelAssignment drops an order the gateway gave up on. In batch dispatch mode the order stops
+// being matched and a driver matched to it since its last AssignDriver is released; the
+// per-request path never holds a driver it did not return, so there is nothing to undo.
+func (s *DriverServiceServer) CancelAssignment(ctx context.Context, req *pb.CancelAssignmentRequest) (*pb.CancelAssignmentResponse, error) {
+	released := false
+	if s.dispatcher != nil {
+		released = s.dispatcher.Cancel(req.OrderId)
+	}
+	log.Printf("[DriverService] Assignment cancelled for orderId=%s (driver released: %t)", req.OrderId, released)
+
+	return &pb.CancelAssignmentResponse{
+		OrderId:        req.OrderId,
+		DriverReleased: released,
+	}, nil
+}
+
+func batchResponse(r dispatch.Result) *pb.AssignDriverResponse {
+	if r.Driver == nil {
+		return noDriverResponse(r.OrderID)
+	}
+	eta := int32(math.Ceil(r.PickupKm / averageSpeedKmh * 60))
+	if eta < 1 {
+		eta = 1
+	}
+	return assignedResponse(r.OrderID, r.Driver, r.PickupKm, eta)
+}
+
+func assignedResponse(orderID string, driver *models.Driver, pickupKm float64, eta int32) *pb.AssignDriverResponse {
 	return &pb.AssignDriverResponse{
+		OrderId:              orderID,
 		DriverId:             driver.ID,
 		DriverName:           driver.Name,
 		Vehicle:              fmt.Sprintf("%s - %s", driver.Vehicle, driver.LicensePlate),
-		EstimatedTimeMinutes: estimatedTime,
+		EstimatedTimeMinutes: eta,
+		PickupDistanceKm:     pickupKm,
 		Status:               "ASSIGNED",
-	}, nil
+		StatusCode:           pb.AssignmentStatus_ASSIGNMENT_STATUS_ASSIGNED,
+	}
+}
+
+func noDriverResponse(orderID string) *pb.AssignDriverResponse {
+	return &pb.AssignDriverResponse{
+		OrderId:    orderID,
+		Status:     "NO_DRIVERS_AVAILABLE",
+		StatusCode: pb.AssignmentStatus_ASSIGNMENT_STATUS_NO_DRIVERS_AVAILABLE,
+	}
 }
 
 // GetDriverStatus retrieves the current status of a driver
@@ -1,146 +0,0 @@
-// Code generated by protoc-gen-go-grpc. DO NOT EDIT.
-// versions:
-// - protoc-gen-go-grpc v1.3.0
-// - protoc             v4.24.4
-// source: driver.proto
-
-package proto
-
-import (
-	context "context"
-	grpc "google.golang.org/grpc"
-	codes "google.golang.org/grpc/codes"
-	status "google.golang.org/grpc/status"
-)
-
-// This is a compile-time assertion to ensure that this generated file
-// is compatible with the grpc package it is being compiled against.
-// Requires gRPC-Go v1.32.0 or later.
-const _ = grpc.SupportPackageIsVersion7
-
-const (
-	DriverService_AssignDriver_FullMethodName    = "/driver.DriverService/AssignDriver"
-	DriverService_GetDriverStatus_FullMethodName = "/driver.DriverService/GetDriverStatus"
-)
-
-// DriverServiceClient is the client API for DriverService service.
-//
-// For semantics around ctx use and closing/ending streaming RPCs, please refer to https://pkg.go.dev/google.golang.org/grpc/?tab=doc#ClientConn.NewStream.
-type DriverServiceClient interface {
-	AssignDriver(ctx context.Context, in *AssignDriverRequest, opts ...grpc.CallOption) (*AssignDriverResponse, error)
-	GetDriverStatus(ctx context.Context, in *DriverStatusRequest, opts ...grpc.CallOption) (*DriverStatusResponse, error)
-}
-
-type driverServiceClient struct {
-	cc grpc.ClientConnInterface
-}
-
-func NewDriverServiceClient(cc grpc.ClientConnInterface) DriverServiceClient {
-	return &driverServiceClient{cc}
-}
-
-func (c *driverServiceClient) AssignDriver(ctx context.Context, in *AssignDriverRequest, opts ...grpc.CallOption) (*AssignDriverResponse, error) {
-	out := new(AssignDriverResponse)
-	err := c.cc.Invoke(ctx, DriverService_AssignDriver_FullMethodName, in, out, opts...)
-	if err != nil {
-		return nil, err
-	}
-	return out, nil
-}
-
-func (c *driverServiceClient) GetDriverStatus(ctx context.Context, in *DriverStatusRequest, opts ...grpc.CallOption) (*DriverStatusResponse, error) {
-	out := new(DriverStatusResponse)
-	err := c.cc.Invoke(ctx, DriverService_GetDriverStatus_FullMethodName, in, out, opts...)
-	if err != nil {
-		return nil, err
-	}
-	return out, nil
-}
-
-// DriverServiceServer is the server API for DriverService service.
-// All implementations must embed UnimplementedDriverServiceServer
-// for forward compatibility
-type DriverServiceServer interface {
-	AssignDriver(context.Context, *AssignDriverRequest) (*AssignDriverResponse, error)
-	GetDriverStatus(context.Context, *DriverStatusRequest) (*DriverStatusResponse, error)
-	mustEmbedUnimplementedDriverServiceServer()
-}
-
-// UnimplementedDriverServiceServer must be embedded to have forward compatible implementations.
-type UnimplementedDriverServiceServer struct {
-}
-
-func (UnimplementedDriverServiceServer) AssignDriver(context.Context, *AssignDriverRequest) (*AssignDriverResponse, error) {
-	return nil, status.Errorf(codes.Unimplemented, "method AssignDriver not implemented")
-}
-func (UnimplementedDriverServiceServer) GetDriverStatus(context.Context, *DriverStatusRequest) (*DriverStatusResponse, error) {
-	return nil, status.Errorf(codes.Unimplemented, "method GetDriverStatus not implemented")
-}
-func (UnimplementedDriverServiceServer) mustEmbedUnimplementedDriverServiceServer() {}
-
-// UnsafeDriverServiceServer may be embedded to opt out of forward compatibility for this service.
-// Use of this interface is not recommended, as added methods to DriverServiceServer will
-// result in compilation errors.
-type UnsafeDriverServiceServer interface {
-	mustEmbedUnimplementedDriverServiceServer()
-}
-
-func RegisterDriverServiceServer(s grpc.ServiceRegistrar, srv DriverServiceServer) {
-	s.RegisterService(&DriverService_ServiceDesc, srv)
-}
-
-func _DriverService_AssignDriver_Handler(srv interface{}, ctx context.Context, dec func(interface{}) error, interceptor grpc.UnaryServerInterceptor) (interface{}, error) {
-	in := new(AssignDriverRequest)
-	if err := dec(in); err != nil {
-		return nil, err
-	}
-	if interceptor == nil {
-		return srv.(DriverServiceServer).AssignDriver(ctx, in)
-	}
-	info := &grpc.UnaryServerInfo{
-		Server:     srv,
-		FullMethod: DriverService_AssignDriver_FullMethodName,
-	}
-	handler := func(ctx context.Context, req interface{}) (interface{}, error) {
-		return srv.(DriverServiceServer).AssignDriver(ctx, req.(*AssignDriverRequest))
-	}
-	return interceptor(ctx, in, info, handler)
-}
-
-func _DriverService_GetDriverStatus_Handler(srv interface{}, ctx context.Context, dec func(interface{}) error, interceptor grpc.UnaryServerInterceptor) (interface{}, error) {
-	in := new(DriverStatusRequest)
-	if err := dec(in); err != nil {
-		return nil, err
-	}
-	if interceptor == nil {
-		return srv.(DriverServiceServer).GetDriverStatus(ctx, in)
-	}
-	info := &grpc.UnaryServerInfo{
-		Server:     srv,
-		FullMethod: DriverService_GetDriverStatus_FullMethodName,
-	}
-	handler := func(ctx context.Context, req interface{}) (interface{}, error) {
-		return srv.(DriverServiceServer).GetDriverStatus(ctx, req.(*DriverStatusRequest))
-	}
-	return interceptor(ctx, in, info, handler)
-}
-
-// DriverService_ServiceDesc is the grpc.ServiceDesc for DriverService service.
-// It's only intended for direct use with grpc.RegisterService,
-// and not to be introspected or modified (even as a copy)
-var DriverService_ServiceDesc = grpc.ServiceDesc{
-	ServiceName: "driver.DriverService",
-	HandlerType: (*DriverServiceServer)(nil),
-	Methods: []grpc.MethodDesc{
-		{
-			MethodName: "AssignDriver",
-			Handler:    _DriverService_AssignDriver_Handler,
-		},
-		{
-			MethodName: "GetDriverStatus",
-			Handler:    _DriverService_GetDriverStatus_Handler,
-		},
-	},
-	Streams:  []grpc.StreamDesc{},
-	Metadata: "driver.proto",
-}
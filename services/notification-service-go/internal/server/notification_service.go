@@ -3,6 +3,7 @@ package server
 import (
 	"context"
 	"log"
+	"strings"
 	"sync"
 	"time"
 
@@ -30,10 +31,11 @@ func (s *NotificationServiceServer) StreamOrderUpdates(req *pb.SubscribeRequest,
 
 	// send initial snapshot
 	_ = stream.Send(&pb.OrderUpdate{
-		OrderId:   orderID,
-		Status:    "SUBSCRIBED",
-		Message:   "Subscription established",
-		Timestamp: time.Now().UnixMilli(),
+		OrderId:    orderID,
+		Status:     "SUBSCRIBED",
+		StatusCode: pb.OrderEvent_ORDER_EVENT_SUBSCRIBED,
+		Message:    "Subscription established",
+		Timestamp:  time.Now().UnixMilli(),
 	})
 
 	// register stream
@@ -68,11 +70,13 @@ func (s *NotificationServiceServer) SendNotification(ctx context.Context, msg *p
 	orderID := msg.GetOrderId()
 	log.Printf("[NotificationService] SendNotification: orderId=%s title=%s", orderID, msg.GetTitle())
 
+	code := eventOf(msg)
 	update := &pb.OrderUpdate{
-		OrderId:   orderID,
-		Status:    "NOTIFICATION",
-		Message:   msg.GetTitle() + ": " + msg.GetBody(),
-		Timestamp: time.Now().UnixMilli(),
+		OrderId:    orderID,
+		Status:     strings.TrimPrefix(code.String(), eventPrefix),
+		StatusCode: code,
+		Message:    msg.GetTitle() + ": " + msg.GetBody(),
+		Timestamp:  time.Now().UnixMilli(),
 	}
 
 	// fan-out to subscribers
@@ -90,3 +94,17 @@ func (s *NotificationServiceServer) SendNotification(ctx context.Context, msg *p
 
 	return msg, nil
 }
+
+const eventPrefix = "ORDER_EVENT_"
+
+// eventOf prefers the message's status_code, falls back to its legacy status string and
+// treats anything else as a plain NOTIFICATION
+func eventOf(msg *pb.NotificationMessage) pb.OrderEvent {
+	if code := msg.GetStatusCode(); code != pb.OrderEvent_ORDER_EVENT_UNSPECIFIED {
+		return code
+	}
+	if v, ok := pb.OrderEvent_value[eventPrefix+strings.ToUpper(msg.GetStatus())]; ok && v != 0 {
+		return pb.OrderEvent(v)
+	}
+	return pb.OrderEvent_ORDER_EVENT_NOTIFICATION
+}
@@ -1,25 +1,37 @@
 package io.github.leoferamos.grpc.orderservice.config;
 
+import io.github.leoferamos.grpc.orderservice.limit.AimdLimit;
+import io.github.leoferamos.grpc.orderservice.limit.ConcurrencyLimitInterceptor;
+import io.github.leoferamos.grpc.orderservice.limit.GradientLimit;
+import io.github.leoferamos.grpc.orderservice.limit.Limit;
+import io.github.leoferamos.grpc.orderservice.marshalling.PooledMarshalling;
 import io.github.leoferamos.grpc.orderservice.server.OrderServiceImpl;
 import io.grpc.Server;
-import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
 import io.grpc.netty.shaded.io.netty.handler.ssl.ClientAuth;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties({GrpcServerTransportProperties.class, ConcurrencyLimitProperties.class})
 public class GrpcServerConfig {
 
     private Server server;
 
     @Bean(destroyMethod = "shutdown")
-    public Server grpcServer(OrderServiceImpl orderService) {
+    public Server grpcServer(OrderServiceImpl orderService, GrpcServerTransportProperties transport,
+                             ConcurrencyLimitProperties concurrencyLimit, MeterRegistry registry) {
         try {
             String certsDir = System.getenv("CERTS_DIR") != null ? System.getenv("CERTS_DIR") : "/certs";
             File serverCertChain = new File(certsDir, "server.crt");
@@ -30,14 +42,32 @@ public class GrpcServerConfig {
                 throw new IllegalStateException("TLS certificates not found in " + certsDir);
             }
 
-            this.server = NettyServerBuilder.forPort(9090)
-                    .addService(orderService)
+            ServerServiceDefinition service = orderService.bindService();
+            PooledMarshalling pooled = transport.isPooledMarshalling() ? new PooledMarshalling() : null;
+            if (pooled != null) {
+                service = pooled.apply(service);
+            }
+
+            if (concurrencyLimit.isEnabled()) {
+                ConcurrencyLimitInterceptor limiter = concurrencyLimitInterceptor(concurrencyLimit);
+                limiter.registerMetrics(registry);
+                service = ServerInterceptors.intercept(service, limiter);
+            }
+
+            NettyServerBuilder builder = NettyServerBuilder.forPort(9090)
+                    .addService(service)
                     .sslContext(GrpcSslContexts.forServer(serverCertChain, serverPrivateKey)
                             .trustManager(trustCertCollection)
                             .clientAuth(ClientAuth.REQUIRE)
-                            .build())
-                    .build();
+                            .build());
+            applyTransport(builder, transport);
+            if (pooled != null) {
+                builder.withChildOption(ChannelOption.ALLOCATOR, pooled.allocator());
+            }
+            this.server = builder.build();
             log.info("gRPC OrderService server configured on port 9090 with mTLS (mutual TLS)");
+            log.info("gRPC transport: {}", transport);
+            log.info("gRPC concurrency limit: {}", concurrencyLimit);
             return this.server;
         } catch (Exception e) {
             log.error("Failed to configure gRPC server: {}", e.getMessage(), e);
@@ -45,6 +75,37 @@ public class GrpcServerConfig {
         }
     }
 
+    private static void applyTransport(NettyServerBuilder builder, GrpcServerTransportProperties transport) {
+        builder.maxConcurrentCallsPerConnection(transport.getMaxConcurrentCallsPerConnection())
+                .keepAliveTime(transport.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(transport.getKeepAliveTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(transport.getPermitKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(transport.isPermitKeepAliveWithoutCalls())
+                .maxInboundMessageSize(transport.getMaxInboundMessageSize());
+        if (transport.getFlowControlWindow() != null) {
+            builder.flowControlWindow(transport.getFlowControlWindow());
+        } else {
+            builder.initialFlowControlWindow(transport.getInitialFlowControlWindow());
+        }
+        if (transport.getMaxConnectionAge() != null) {
+            builder.maxConnectionAge(transport.getMaxConnectionAge().toMillis(), TimeUnit.MILLISECONDS)
+                    .maxConnectionAgeGrace(transport.getMaxConnectionAgeGrace().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (transport.getMaxConnectionIdle() != null) {
+            builder.maxConnectionIdle(transport.getMaxConnectionIdle().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ConcurrencyLimitInterceptor concurrencyLimitInterceptor(ConcurrencyLimitProperties props) {
+        Limit limit = switch (props.getAlgorithm()) {
+            case GRADIENT -> new GradientLimit(props.getInitialLimit(), props.getMinLimit(), props.getMaxLimit(),
+                    props.getTolerance(), props.getSmoothing());
+            case AIMD -> new AimdLimit(props.getInitialLimit(), props.getMinLimit(), props.getMaxLimit(),
+                    props.getBackoffRatio(), props.getSlowCallThreshold().toNanos());
+        };
+        return new ConcurrencyLimitInterceptor(limit, props.getPriorities(), props.getDefaultPriority());
+    }
+
     @PreDestroy
     public void onDestroy() {
         if (server != null) {
@@ -0,0 +1,48 @@
+package io.github.leoferamos.grpc.orderservice.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Netty transport settings for the gRPC server. Defaults are tuned for gateway traffic;
+ * override any of them with grpc.server.* properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "grpc.server")
+public class GrpcServerTransportProperties {
+
+    /** HTTP/2 SETTINGS_MAX_CONCURRENT_STREAMS advertised to each client connection. */
+    private int maxConcurrentCallsPerConnection = 1000;
+
+    /** Starting per-stream window; BDP auto-tuning grows it from here. */
+    private int initialFlowControlWindow = 1024 * 1024;
+
+    /** Fixed per-stream window. When set, BDP auto-tuning is disabled and this value is used as-is. */
+    private Integer flowControlWindow;
+
+    private Duration keepAliveTime = Duration.ofSeconds(60);
+
+    private Duration keepAliveTimeout = Duration.ofSeconds(20);
+
+    /** Most frequent client keepalive ping accepted before the connection is closed. */
+    private Duration permitKeepAliveTime = Duration.ofSeconds(10);
+
+    private boolean permitKeepAliveWithoutCalls = false;
+
+    /** Connections are gracefully closed after this age so clients re-resolve and rebalance onto new replicas. */
+    private Duration maxConnectionAge = Duration.ofMinutes(5);
+
+    /** Time in-flight calls get to finish after a max-age GOAWAY. */
+    private Duration maxConnectionAgeGrace = Duration.ofSeconds(30);
+
+    private Duration maxConnectionIdle;
+
+    private int maxInboundMessageSize = 4 * 1024 * 1024;
+
+    /**
+     * Serialize responses through a per-thread scratch array and give handler threads
+     * allocator caches. See PooledMarshalling.
+     */
+    private boolean pooledMarshalling = false;
+}
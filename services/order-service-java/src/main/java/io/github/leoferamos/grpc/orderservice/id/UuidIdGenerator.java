@@ -0,0 +1,14 @@
+package io.github.leoferamos.grpc.orderservice.id;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs, the historical format. Kept for deployments that still expect 36-char ids.
+ */
+public class UuidIdGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.leoferamos.grpc.orderservice.limit;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounds the calls in flight to the current {@link Limit}. A call over the limit is closed with
+ * RESOURCE_EXHAUSTED before its handler runs, so overload costs the server almost nothing and
+ * admitted calls keep their latency instead of queueing behind everyone else.
+ *
+ * <p>Each method may only fill its priority's share (percent) of the limit, so lower-priority
+ * traffic is shed first.
+ */
+@Slf4j
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    private final Limit limit;
+    private final Map<String, Integer> priorities;
+    private final int defaultPriority;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitInterceptor(Limit limit, Map<String, Integer> priorities, int defaultPriority) {
+        this.limit = limit;
+        this.priorities = Map.copyOf(priorities);
+        this.defaultPriority = defaultPriority;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String method = call.getMethodDescriptor().getFullMethodName();
+        int allowed = Math.max(1, limit.getLimit() * priorities.getOrDefault(method, defaultPriority) / 100);
+        int admittedAt = inFlight.incrementAndGet();
+        if (admittedAt > allowed) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            log.debug("Rejecting {}: {} calls in flight, limit {}", method, admittedAt - 1, allowed);
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server concurrency limit reached"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable onDropped = () -> release(released, startNanos, admittedAt, true);
+        Runnable onDone = () -> release(released, startNanos, admittedAt, false);
+
+        ServerCall<ReqT, RespT> tracked = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                try {
+                    super.close(status, trailers);
+                } finally {
+                    if (status.getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                        onDropped.run();
+                    } else {
+                        onDone.run();
+                    }
+                }
+            }
+        };
+
+        ServerCall.Listener<ReqT> delegate;
+        try {
+            delegate = next.startCall(tracked, headers);
+        } catch (RuntimeException e) {
+            onDone.run();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    onDropped.run();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    onDone.run();
+                }
+            }
+        };
+    }
+
+    private void release(AtomicBoolean released, long startNanos, int admittedAt, boolean dropped) {
+        if (released.compareAndSet(false, true)) {
+            inFlight.decrementAndGet();
+            limit.onSample(System.nanoTime() - startNanos, admittedAt, dropped);
+        }
+    }
+
+    /** Current limit, calls in flight and calls shed, to watch the limit move against latency. */
+    public void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("grpc.server.concurrency.limit", this, ConcurrencyLimitInterceptor::getLimit)
+                .register(registry);
+        Gauge.builder("grpc.server.concurrency.in.flight", this, ConcurrencyLimitInterceptor::getInFlight)
+                .register(registry);
+        FunctionCounter.builder("grpc.server.concurrency.rejected", this, ConcurrencyLimitInterceptor::getRejected)
+                .register(registry);
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.leoferamos.grpc.orderservice.marshalling;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in low-allocation marshalling for the gRPC server ({@code grpc.server.pooled-marshalling}):
+ * responses are serialized through {@link PooledProtoMarshaller}'s per-thread scratch array, and
+ * connections share a pooled allocator whose thread-local caches also serve the handler threads
+ * that write those responses into Netty buffers (gRPC's own allocator only caches for its event loops).
+ */
+public final class PooledMarshalling {
+
+    private final PooledProtoMarshaller.Counters counters = new PooledProtoMarshaller.Counters();
+    private final PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+            PooledByteBufAllocator.defaultPreferDirect(),
+            PooledByteBufAllocator.defaultNumHeapArena(), PooledByteBufAllocator.defaultNumDirectArena(),
+            PooledByteBufAllocator.defaultPageSize(), PooledByteBufAllocator.defaultMaxOrder(),
+            PooledByteBufAllocator.defaultSmallCacheSize(), PooledByteBufAllocator.defaultNormalCacheSize(),
+            true);
+
+    public PooledByteBufAllocator allocator() {
+        return allocator;
+    }
+
+    public PooledProtoMarshaller.Counters counters() {
+        return counters;
+    }
+
+    /** The same service with every method's marshallers wrapped in {@link PooledProtoMarshaller}s. */
+    public ServerServiceDefinition apply(ServerServiceDefinition service) {
+        ServiceDescriptor original = service.getServiceDescriptor();
+        ServiceDescriptor.Builder descriptor = ServiceDescriptor.newBuilder(original.getName())
+                .setSchemaDescriptor(original.getSchemaDescriptor());
+        List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+        for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+            ServerMethodDefinition<?, ?> pooled = pooled(method);
+            descriptor.addMethod(pooled.getMethodDescriptor());
+            methods.add(pooled);
+        }
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(descriptor.build());
+        methods.forEach(builder::addMethod);
+        return builder.build();
+    }
+
+    private <ReqT, RespT> ServerMethodDefinition<ReqT, RespT> pooled(ServerMethodDefinition<ReqT, RespT> definition) {
+        MethodDescriptor<ReqT, RespT> method = definition.getMethodDescriptor();
+        return ServerMethodDefinition.create(method.toBuilder(
+                        PooledProtoMarshaller.wrap(method.getRequestMarshaller(), counters),
+                        PooledProtoMarshaller.wrap(method.getResponseMarshaller(), counters)).build(),
+                definition.getServerCallHandler());
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.leoferamos.grpc.orderservice.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one stage of a gRPC handler in order-service; the event duration is the
+ * stage's wall-clock time. Captured by the always-on recording started from the container
+ * entrypoint, whose chunks are kept in /jfr.
+ */
+@Name("io.github.leoferamos.order.Handler")
+@Label("Order Service Handler")
+@Category({"Food Delivery", "Order Service"})
+@Description("One stage of an order-service gRPC handler")
+@StackTrace(false)
+public class HandlerEvent extends Event {
+
+    @Label("Order Id")
+    String orderId;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+
+    /** Set while the stage is open; stays false when the event was disabled at start. */
+    private transient boolean open;
+
+    public static HandlerEvent start(String stage) {
+        HandlerEvent event = new HandlerEvent();
+        if (event.isEnabled()) {
+            event.stage = stage;
+            event.open = true;
+            event.begin();
+        }
+        return event;
+    }
+
+    /** Ends the stage; only the first call per event counts. */
+    public void finish(String orderId, String outcome) {
+        if (!open) {
+            return;
+        }
+        open = false;
+        end();
+        if (shouldCommit()) {
+            this.orderId = orderId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -3,29 +3,49 @@ package io.github.leoferamos.grpc.orderservice.server;
 import io.github.leoferamos.grpc.order.OrderRequest;
 import io.github.leoferamos.grpc.order.OrderResponse;
 import io.github.leoferamos.grpc.order.OrderServiceGrpc;
+import io.github.leoferamos.grpc.order.OrderStatus;
+import io.github.leoferamos.grpc.orderservice.id.IdGenerator;
+import io.github.leoferamos.grpc.orderservice.profiling.HandlerEvent;
 import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class OrderServiceImpl extends OrderServiceGrpc.OrderServiceImplBase {
 
+    private final IdGenerator idGenerator;
+
+    /** Keep filling the pre-enum string fields until every client reads status_code. */
+    @Value("${grpc.wire.legacy-status-strings:true}")
+    private boolean legacyStatusStrings;
+
     @Override
     public void createOrder(OrderRequest request, StreamObserver<OrderResponse> responseObserver) {
-        log.info("[OrderService] Creating order for user={}, restaurant={}, items={}",
-                request.getUserId(), request.getRestaurantId(), request.getItemsList());
+        HandlerEvent event = HandlerEvent.start("createOrder");
+        String orderId = null;
+        String outcome = "ERROR";
+        try {
+            log.info("[OrderService] Creating order for user={}, restaurant={}, items={}",
+                    request.getUserId(), request.getRestaurantId(), request.getItemsList());
 
-        String orderId = UUID.randomUUID().toString();
-        OrderResponse response = OrderResponse.newBuilder()
-                .setOrderId(orderId)
-                .setStatus("CREATED")
-                .build();
+            orderId = idGenerator.nextId();
+            OrderResponse.Builder response = OrderResponse.newBuilder()
+                    .setOrderId(orderId)
+                    .setStatusCode(OrderStatus.ORDER_STATUS_CREATED);
+            if (legacyStatusStrings) {
+                response.setStatus("CREATED");
+            }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+            outcome = "CREATED";
+        } finally {
+            event.finish(orderId, outcome);
+        }
 
         log.info("[OrderService] Order created id={} status=CREATED", orderId);
     }
@@ -0,0 +1,29 @@
+package io.github.leoferamos.grpc.orderservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.leoferamos.grpc.orderservice.id.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class IdGeneratorConfigTest {
+
+    @Test
+    void requiresAnExplicitNodeIdWithSeveralReplicas() {
+        assertThatThrownBy(() -> config(-1, 3).idGenerator())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ids.node-id");
+
+        assertThat(config(2, 3).idGenerator()).isInstanceOf(SnowflakeIdGenerator.class);
+        assertThat(config(-1, 1).idGenerator()).isInstanceOf(SnowflakeIdGenerator.class);
+    }
+
+    private static IdGeneratorConfig config(int nodeId, int replicas) {
+        IdGeneratorConfig config = new IdGeneratorConfig();
+        ReflectionTestUtils.setField(config, "generator", "snowflake");
+        ReflectionTestUtils.setField(config, "nodeId", nodeId);
+        ReflectionTestUtils.setField(config, "replicas", replicas);
+        return config;
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.leoferamos.grpc.orderservice.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class Base62Test {
+
+    @Test
+    void roundTripsAndKeepsNumericOrder() {
+        assertThat(Base62.encode(0)).isEqualTo("00000000000");
+        assertThat(Base62.decode(Base62.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+
+        SplittableRandom random = new SplittableRandom(42);
+        long previous = -1;
+        String previousId = null;
+        for (int i = 0; i < 10_000; i++) {
+            long value = previous + 1 + random.nextLong(1L << 40);
+            String id = Base62.encode(value);
+            assertThat(id).hasSize(Base62.WIDTH);
+            assertThat(Base62.decode(id)).isEqualTo(value);
+            if (previousId != null) {
+                assertThat(id).isGreaterThan(previousId);
+            }
+            previous = value;
+            previousId = id;
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThatThrownBy(() -> Base62.encode(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Base62.decode("short")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Base62.decode("0000000000-")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.leoferamos.grpc.orderservice.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private static final MethodDescriptor<String, String> METHOD = MethodDescriptor.<String, String>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName("test.Service/Call")
+            .setRequestMarshaller(new StringMarshaller())
+            .setResponseMarshaller(new StringMarshaller())
+            .build();
+
+    private static final ServerCallHandler<String, String> NOOP = (call, headers) -> new ServerCall.Listener<>() {
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsCallsOverTheLimitAndExportsTheMeters() {
+        ConcurrencyLimitInterceptor interceptor = interceptor(1);
+
+        ServerCall.Listener<String> admitted = interceptor.interceptCall(call(), new Metadata(), NOOP);
+        ServerCall<String, String> shed = call();
+        interceptor.interceptCall(shed, new Metadata(), NOOP);
+
+        ArgumentCaptor<Status> status = ArgumentCaptor.forClass(Status.class);
+        verify(shed).close(status.capture(), any(Metadata.class));
+        assertThat(status.getValue().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(gauge("grpc.server.concurrency.limit")).isEqualTo(1);
+        assertThat(gauge("grpc.server.concurrency.in.flight")).isEqualTo(1);
+        assertThat(registry.get("grpc.server.concurrency.rejected").functionCounter().count()).isEqualTo(1);
+
+        admitted.onComplete();
+        assertThat(gauge("grpc.server.concurrency.in.flight")).isZero();
+        ServerCall<String, String> next = call();
+        interceptor.interceptCall(next, new Metadata(), NOOP);
+        verify(next, never()).close(any(), any());
+    }
+
+    @Test
+    void cancelledCallIsReleasedAndCountsAsDropped() {
+        ConcurrencyLimitInterceptor interceptor = interceptor(10);
+
+        ServerCall.Listener<String> listener = interceptor.interceptCall(call(), new Metadata(), NOOP);
+        assertThat(interceptor.getInFlight()).isEqualTo(1);
+        listener.onCancel();
+        // onComplete after a cancel must not release twice
+        listener.onComplete();
+
+        assertThat(interceptor.getInFlight()).isZero();
+        assertThat(interceptor.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void callIsReleasedWhenTheHandlerThrows() {
+        ConcurrencyLimitInterceptor interceptor = interceptor(10);
+        ServerCallHandler<String, String> failing = (call, headers) -> {
+            throw new IllegalStateException("handler failed");
+        };
+
+        assertThatThrownBy(() -> interceptor.interceptCall(call(), new Metadata(), failing))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(interceptor.getInFlight()).isZero();
+        assertThat(interceptor.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void deadlineExceededCloseCountsAsDropped() {
+        ConcurrencyLimitInterceptor interceptor = interceptor(10);
+        ServerCallHandler<String, String> timingOut = (call, headers) -> {
+            call.close(Status.DEADLINE_EXCEEDED, new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        };
+
+        interceptor.interceptCall(call(), new Metadata(), timingOut);
+
+        assertThat(interceptor.getInFlight()).isZero();
+        assertThat(interceptor.getLimit()).isEqualTo(5);
+    }
+
+    /** AIMD that halves on a drop and never grows past its initial limit, so every change is visible. */
+    private ConcurrencyLimitInterceptor interceptor(int limit) {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(
+                new AimdLimit(limit, 1, limit, 0.5, TimeUnit.SECONDS.toNanos(10)), Map.of(), 100);
+        interceptor.registerMetrics(registry);
+        return interceptor;
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ServerCall<String, String> call() {
+        ServerCall<String, String> call = mock(ServerCall.class);
+        when(call.getMethodDescriptor()).thenReturn(METHOD);
+        return call;
+    }
+
+    private static final class StringMarshaller implements MethodDescriptor.Marshaller<String> {
+
+        @Override
+        public InputStream stream(String value) {
+            return new ByteArrayInputStream(value.getBytes());
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
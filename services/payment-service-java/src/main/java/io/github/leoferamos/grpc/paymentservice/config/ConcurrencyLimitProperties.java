@@ -0,0 +1,55 @@
+package io.github.leoferamos.grpc.paymentservice.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive concurrency limit applied to every call the gRPC server accepts. Calls over the
+ * current limit are rejected immediately with RESOURCE_EXHAUSTED instead of queueing.
+ */
+@Data
+@ConfigurationProperties(prefix = "grpc.server.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    public enum Algorithm {
+        /** Scales the limit by the ratio of no-load to recent latency (queueing shows up as a gradient below 1). */
+        GRADIENT,
+        /** Adds one on success, multiplies by {@code backoffRatio} on a timeout or a slow call. */
+        AIMD
+    }
+
+    private boolean enabled = true;
+
+    private Algorithm algorithm = Algorithm.GRADIENT;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 1000;
+
+    /** Gradient: how much latency growth over the no-load baseline is tolerated before shrinking. */
+    private double tolerance = 1.5;
+
+    /** Gradient: weight of each new limit estimate (0..1). */
+    private double smoothing = 0.2;
+
+    /** AIMD: multiplier applied to the limit when a call is dropped or slower than {@code slowCallThreshold}. */
+    private double backoffRatio = 0.9;
+
+    /** AIMD: calls slower than this count as drops. */
+    private Duration slowCallThreshold = Duration.ofMillis(500);
+
+    /**
+     * Share of the limit (percent) a method may fill before its calls are rejected, keyed by full
+     * method name (e.g. {@code payment.PaymentService/ProcessPayment}). Lower-priority methods are shed
+     * first, leaving the remaining headroom to higher-priority ones.
+     */
+    private Map<String, Integer> priorities = new LinkedHashMap<>();
+
+    /** Priority of methods not listed in {@code priorities}. */
+    private int defaultPriority = 100;
+}
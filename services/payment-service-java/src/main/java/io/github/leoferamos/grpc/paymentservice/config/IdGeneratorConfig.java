@@ -0,0 +1,41 @@
+package io.github.leoferamos.grpc.paymentservice.config;
+
+import io.github.leoferamos.grpc.paymentservice.id.IdGenerator;
+import io.github.leoferamos.grpc.paymentservice.id.SnowflakeIdGenerator;
+import io.github.leoferamos.grpc.paymentservice.id.UuidIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    @Value("${ids.generator:snowflake}")
+    private String generator;
+
+    /** Snowflake node id; every replica needs its own. */
+    @Value("${ids.node-id:-1}")
+    private int nodeId;
+
+    /** How many replicas of this service mint ids; above 1, ids.node-id must be set explicitly. */
+    @Value("${ids.replicas:1}")
+    private int replicas;
+
+    @Bean
+    public IdGenerator idGenerator() {
+        if ("uuid".equalsIgnoreCase(generator)) {
+            log.info("Using UUID id generator");
+            return new UuidIdGenerator();
+        }
+        if (nodeId < 0 && replicas > 1) {
+            // A derived id could collide between replicas and silently mint duplicate ids
+            throw new IllegalStateException("ids.node-id must be set to a distinct value (0-"
+                    + SnowflakeIdGenerator.MAX_NODE_ID + ") on each of the " + replicas + " replicas");
+        }
+        int node = Math.max(nodeId, 0);
+        log.info("Using snowflake id generator with nodeId={} ({} replica(s))", node, replicas);
+        return new SnowflakeIdGenerator(node);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.leoferamos.grpc.paymentservice.config;
+
+import io.github.leoferamos.grpc.paymentservice.ledger.BalanceLedger;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(LedgerProperties.class)
+public class LedgerConfig {
+
+    @Bean(destroyMethod = "close")
+    public BalanceLedger balanceLedger(LedgerProperties props) throws IOException {
+        if (!props.isEnabled()) {
+            log.warn("Payment ledger journal disabled; balances are kept in memory only");
+            return BalanceLedger.inMemory();
+        }
+        log.info("Payment ledger journal in {} (batch window {}, max batch {}, snapshot every {} records or {})",
+                props.getDirectory().toAbsolutePath(), props.getBatchWindow(), props.getMaxBatch(),
+                props.getSnapshotEveryRecords(), props.getSnapshotInterval());
+        return BalanceLedger.open(props.getDirectory(), props.getBatchWindow(), props.getMaxBatch(), true,
+                props.getSnapshotEveryRecords(), props.getSnapshotInterval());
+    }
+}
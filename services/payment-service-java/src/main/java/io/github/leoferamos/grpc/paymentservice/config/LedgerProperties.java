@@ -0,0 +1,36 @@
+package io.github.leoferamos.grpc.paymentservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Durable payment ledger: user balances journaled to a group-committed write-ahead log with
+ * periodic snapshots. When disabled, balances live in memory and are re-seeded on every start.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.ledger")
+public class LedgerProperties {
+
+    private boolean enabled = true;
+
+    /** Holds the journal segments and snapshots; must survive restarts (a volume in Docker). */
+    private Path directory = Path.of("data", "ledger");
+
+    /**
+     * How long the journal writer waits for more debits after the first one of a batch. Zero still
+     * batches every debit that arrived during the previous fsync; a small window trades that much
+     * latency for fewer, larger fsyncs under light concurrency.
+     */
+    private Duration batchWindow = Duration.ZERO;
+
+    /** Debits made durable by one fsync at most. */
+    private int maxBatch = 1024;
+
+    /** A snapshot is taken after this many journaled debits, or after {@code snapshotInterval}, whichever comes first. */
+    private long snapshotEveryRecords = 100_000;
+
+    /** Longest time between snapshots while debits are happening. */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,49 @@
+package io.github.leoferamos.grpc.paymentservice.id;
+
+/**
+ * Fixed-width (11 char) base62 encoding of non-negative longs. The alphabet is in ASCII
+ * order and the output is left-padded, so string order matches numeric order.
+ */
+public final class Base62 {
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    public static final int WIDTH = 11;
+
+    private Base62() {
+    }
+
+    public static String encode(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be encoded: " + value);
+        }
+        char[] out = new char[WIDTH];
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            out[i] = ALPHABET[(int) (value % 62)];
+            value /= 62;
+        }
+        return new String(out);
+    }
+
+    public static long decode(String encoded) {
+        if (encoded == null || encoded.length() != WIDTH) {
+            throw new IllegalArgumentException("Invalid id: " + encoded);
+        }
+        long value = 0;
+        for (int i = 0; i < WIDTH; i++) {
+            char c = encoded.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'A' && c <= 'Z') {
+                digit = c - 'A' + 10;
+            } else if (c >= 'a' && c <= 'z') {
+                digit = c - 'a' + 36;
+            } else {
+                throw new IllegalArgumentException("Invalid id: " + encoded);
+            }
+            value = value * 62 + digit;
+        }
+        return value;
+    }
+}
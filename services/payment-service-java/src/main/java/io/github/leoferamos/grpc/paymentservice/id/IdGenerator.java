@@ -0,0 +1,9 @@
+package io.github.leoferamos.grpc.paymentservice.id;
+
+/**
+ * Mints identifiers for entities created by this service.
+ */
+public interface IdGenerator {
+
+    String nextId();
+}
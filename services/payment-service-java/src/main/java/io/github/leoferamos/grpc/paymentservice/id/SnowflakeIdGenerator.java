@@ -0,0 +1,61 @@
+package io.github.leoferamos.grpc.paymentservice.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit ids: 41 bits of milliseconds since {@link #EPOCH_MILLIS},
+ * 10 bits of node id and 12 bits of per-millisecond sequence.
+ *
+ * <p>The last (timestamp, sequence) pair is packed into one {@link AtomicLong} and advanced
+ * with CAS, so generation never locks. When a millisecond's 4096 sequence values run out, or
+ * the wall clock steps backwards, the generator keeps counting forward from the last issued
+ * value instead of waiting; ids stay unique and monotonic per node.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /** 2024-01-01T00:00:00Z. */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public long nextLong() {
+        long candidate = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            long next = Math.max(candidate, last + 1);
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+            }
+        }
+    }
+
+    @Override
+    public String nextId() {
+        return Base62.encode(nextLong());
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
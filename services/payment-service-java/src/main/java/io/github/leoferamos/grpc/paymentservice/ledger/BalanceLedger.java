@@ -0,0 +1,261 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * User balances backed by a {@link WriteAheadLog}. A debit is checked and applied under the
+ * user's map entry, journaled in the same step (so per-user journal order matches the order
+ * the debits were applied) and acknowledged once its group commit is durable.
+ *
+ * <p>The journal's writer thread keeps a second copy of the balances holding only durable
+ * records; every {@code snapshotEveryRecords} records or {@code snapshotInterval} that copy is
+ * written out as a snapshot and segments covered by every retained snapshot are deleted, so
+ * startup replays one snapshot plus a short journal tail. If the journal cannot be written the
+ * ledger stops accepting debits instead of acknowledging payments it may lose.
+ */
+@Slf4j
+public final class BalanceLedger implements AutoCloseable {
+
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    /** Outcome of a debit: {@code applied} is false when the balance did not cover the amount. */
+    public record Debit(boolean applied, double balanceBefore, double balanceAfter) {
+    }
+
+    private final Map<String, Double> balances;
+    private final Path directory;
+    private final WriteAheadLog journal;
+    private final boolean recovered;
+
+    // Owned by the journal writer thread
+    private final Map<String, Double> durable;
+    private final long snapshotEveryRecords;
+    private final long snapshotIntervalNanos;
+    private long lastDurableSeq;
+    private long recordsSinceSnapshot;
+    private long lastSnapshotNanos = System.nanoTime();
+
+    private final ExecutorService snapshotter;
+
+    private BalanceLedger(Map<String, Double> state, Path directory, long lastSeq, boolean recovered,
+                          Duration batchWindow, int maxBatch, boolean fsync,
+                          long snapshotEveryRecords, Duration snapshotInterval) throws IOException {
+        this.balances = new ConcurrentHashMap<>(state);
+        this.directory = directory;
+        this.recovered = recovered;
+        this.durable = new HashMap<>(state);
+        this.lastDurableSeq = lastSeq;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.snapshotIntervalNanos = snapshotInterval == null ? Long.MAX_VALUE : snapshotInterval.toNanos();
+        if (directory == null) {
+            this.journal = null;
+            this.snapshotter = null;
+        } else {
+            this.snapshotter = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ledger-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            this.journal = new WriteAheadLog(directory, lastSeq + 1, batchWindow.toNanos(), maxBatch, fsync,
+                    this::committed);
+        }
+    }
+
+    /** Balances that live only as long as the process; for tests and for running without a disk. */
+    public static BalanceLedger inMemory() {
+        try {
+            return new BalanceLedger(Map.of(), null, 0, false, Duration.ZERO, 1, false, Long.MAX_VALUE, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recovers the balances from the newest snapshot and the journal after it, then opens the
+     * journal for appends.
+     *
+     * @param batchWindow how long the writer lingers for more records after the first one of a batch;
+     *                    zero batches only what queued up during the previous fsync
+     * @param maxBatch    records per fsync at most
+     * @param fsync       false skips the fsync (records still reach the OS page cache); for benchmarks only
+     */
+    public static BalanceLedger open(Path directory, Duration batchWindow, int maxBatch, boolean fsync,
+                                     long snapshotEveryRecords, Duration snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        Optional<Snapshots.Snapshot> snapshot = Snapshots.loadLatest(directory);
+        Map<String, Double> state = new HashMap<>(snapshot.map(Snapshots.Snapshot::balances).orElse(Map.of()));
+        long snapshotSeq = snapshot.map(Snapshots.Snapshot::seq).orElse(0L);
+        long[] replayed = new long[1];
+        long lastSeq = WriteAheadLog.replay(directory, snapshotSeq, r -> {
+            state.put(r.userId(), r.balance());
+            replayed[0]++;
+        });
+        boolean recovered = snapshot.isPresent() || replayed[0] > 0;
+        log.info("Ledger in {}: {} balance(s) recovered from snapshot at seq {} plus {} journal record(s) in {} ms",
+                directory, state.size(), snapshotSeq, replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new BalanceLedger(state, directory, lastSeq, recovered, batchWindow, maxBatch, fsync,
+                snapshotEveryRecords, snapshotInterval);
+    }
+
+    public double balance(String userId) {
+        return balances.getOrDefault(userId, 0.0);
+    }
+
+    public int accounts() {
+        return balances.size();
+    }
+
+    /** Whether existing state was found on disk when the ledger was opened. */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Debits {@code amount} if the balance covers it. Returns once the debit is durable.
+     *
+     * @throws UncheckedIOException if the journal cannot be written; the debit is taken back out of
+     *                              the in-memory balance and must be treated as not done
+     */
+    public Debit debit(String userId, double amount, String reference) {
+        Debit[] result = new Debit[1];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] written = new CompletableFuture[1];
+        balances.compute(userId, (id, current) -> {
+            double before = current == null ? 0.0 : current;
+            if (before < amount) {
+                result[0] = new Debit(false, before, before);
+                return current;
+            }
+            double after = before - amount;
+            if (journal != null) {
+                written[0] = journal.append(new LedgerRecord(0, id, after, -amount, reference));
+            }
+            result[0] = new Debit(true, before, after);
+            return after;
+        });
+        try {
+            awaitDurable(written[0]);
+        } catch (UncheckedIOException e) {
+            revert(userId, result[0], amount);
+            throw e;
+        }
+        return result[0];
+    }
+
+    /** Seeds balances into a ledger that started with no state; returns false if state was recovered. */
+    public boolean seedIfEmpty(Map<String, Double> seeds) {
+        if (recovered || !balances.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, Double> seed : seeds.entrySet()) {
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Void>[] written = new CompletableFuture[1];
+            balances.compute(seed.getKey(), (id, current) -> {
+                double before = current == null ? 0.0 : current;
+                if (journal != null) {
+                    written[0] = journal.append(new LedgerRecord(0, id, seed.getValue(), seed.getValue() - before, "seed"));
+                }
+                return seed.getValue();
+            });
+            awaitDurable(written[0]);
+        }
+        return true;
+    }
+
+    /** Group commits so far, for reporting the average batch size. */
+    public long commits() {
+        return journal == null ? 0 : journal.batches();
+    }
+
+    /** Writes what is queued, takes a final snapshot and stops the journal. */
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        journal.close();
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The writer has stopped, so its durable view can be read here
+        if (recordsSinceSnapshot > 0) {
+            writeSnapshot(lastDurableSeq, new HashMap<>(durable));
+        }
+    }
+
+    private void committed(List<LedgerRecord> batch, long lastSeq) {
+        for (LedgerRecord record : batch) {
+            durable.put(record.userId(), record.balance());
+        }
+        lastDurableSeq = lastSeq;
+        recordsSinceSnapshot += batch.size();
+        long now = System.nanoTime();
+        if (recordsSinceSnapshot >= snapshotEveryRecords || now - lastSnapshotNanos >= snapshotIntervalNanos) {
+            recordsSinceSnapshot = 0;
+            lastSnapshotNanos = now;
+            Map<String, Double> copy = new HashMap<>(durable);
+            journal.requestRoll();
+            snapshotter.execute(() -> writeSnapshot(lastSeq, copy));
+        }
+    }
+
+    private void writeSnapshot(long seq, Map<String, Double> state) {
+        try {
+            long start = System.nanoTime();
+            Path path = Snapshots.write(directory, seq, state);
+            Snapshots.prune(directory, SNAPSHOTS_KEPT);
+            // Recovery falls back to an older snapshot if the newest is damaged, so keep the
+            // journal back to the oldest one still on disk
+            journal.deleteSegmentsThrough(Snapshots.oldestSeq(directory).orElse(0L));
+            log.info("Ledger snapshot {} ({} balance(s) at seq {}) written in {} ms", path.getFileName(),
+                    state.size(), seq, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            // The journal still holds every record; the next snapshot will try again
+            log.warn("Ledger snapshot at seq {} failed: {}", seq, e.getMessage());
+        }
+    }
+
+    /**
+     * Takes back a debit whose journal write failed. A failed write fails every record queued
+     * with or after it, so any later debit of the same user is being taken back too: restore the
+     * exact prior balance if ours is still the latest, otherwise return the amount.
+     */
+    private void revert(String userId, Debit debit, double amount) {
+        balances.computeIfPresent(userId, (id, current) ->
+                current == debit.balanceAfter() ? debit.balanceBefore() : current + amount);
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> written) {
+        if (written == null) {
+            return;
+        }
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io
+                    ? new UncheckedIOException("Ledger journal write failed", io)
+                    : new UncheckedIOException(new IOException("Ledger journal write failed", cause));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * One balance change in the write-ahead log. It carries the balance after the change, not only
+ * the delta, so replaying a record is idempotent and order only matters per user.
+ *
+ * <p>On disk: {@code int bodyLength, int crc32c(body), body}, where the body is
+ * {@code long seq, double balance, double delta, short+bytes userId, short+bytes reference}.
+ */
+public record LedgerRecord(long seq, String userId, double balance, double delta, String reference) {
+
+    static final int HEADER_BYTES = 8;
+
+    LedgerRecord withSeq(long seq) {
+        return new LedgerRecord(seq, userId, balance, delta, reference);
+    }
+
+    int encodedSize() {
+        return HEADER_BYTES + 8 + 8 + 8 + 2 + utf8Length(userId) + 2 + utf8Length(reference);
+    }
+
+    void encode(ByteBuffer buf) {
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        byte[] ref = reference == null ? new byte[0] : reference.getBytes(StandardCharsets.UTF_8);
+        int start = buf.position();
+        int bodyLength = 8 + 8 + 8 + 2 + user.length + 2 + ref.length;
+        buf.putInt(bodyLength).putInt(0);
+        int bodyStart = buf.position();
+        buf.putLong(seq).putDouble(balance).putDouble(delta)
+                .putShort((short) user.length).put(user)
+                .putShort((short) ref.length).put(ref);
+        CRC32C crc = new CRC32C();
+        crc.update(buf.duplicate().position(bodyStart).limit(bodyStart + bodyLength));
+        buf.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /** Decodes the body whose checksum was verified by the caller. */
+    static LedgerRecord decode(ByteBuffer body) {
+        long seq = body.getLong();
+        double balance = body.getDouble();
+        double delta = body.getDouble();
+        String userId = readString(body);
+        String reference = readString(body);
+        return new LedgerRecord(seq, userId, balance, delta, reference.isEmpty() ? null : reference);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buf.getShort())];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int length = s.getBytes(StandardCharsets.UTF_8).length;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("Ledger string longer than 65535 bytes");
+        }
+        return length;
+    }
+}
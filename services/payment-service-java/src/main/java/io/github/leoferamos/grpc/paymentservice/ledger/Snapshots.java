@@ -0,0 +1,155 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Balance snapshots: every balance as of one journal sequence number, written to a temporary file,
+ * fsynced and renamed into place so a crash never leaves a half-written snapshot behind.
+ *
+ * <p>On disk: {@code int magic, long seq, int count, count x (short+bytes userId, double balance), int crc32c}.
+ */
+@Slf4j
+final class Snapshots {
+
+    private static final int MAGIC = 0x4C444731; // "LDG1"
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    record Snapshot(long seq, Map<String, Double> balances) {
+    }
+
+    private Snapshots() {
+    }
+
+    static Path write(Path directory, long seq, Map<String, Double> balances) throws IOException {
+        int size = 4 + 8 + 4 + 4;
+        for (String userId : balances.keySet()) {
+            size += 2 + userId.getBytes(StandardCharsets.UTF_8).length + 8;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putLong(seq).putInt(balances.size());
+        for (Map.Entry<String, Double> e : balances.entrySet()) {
+            byte[] user = e.getKey().getBytes(StandardCharsets.UTF_8);
+            buf.putShort((short) user.length).put(user).putDouble(e.getValue());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, seq, SUFFIX));
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(directory);
+        return target;
+    }
+
+    /** The newest snapshot that reads back intact; damaged ones are skipped with a warning. */
+    static Optional<Snapshot> loadLatest(Path directory) throws IOException {
+        List<Path> snapshots = list(directory);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+            try {
+                return Optional.of(read(buf));
+            } catch (RuntimeException e) {
+                log.warn("Skipping damaged ledger snapshot {}: {}", path, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Sequence number of the oldest snapshot on disk, intact or not. */
+    static Optional<Long> oldestSeq(Path directory) {
+        List<Path> snapshots = list(directory);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        String name = snapshots.get(0).getFileName().toString();
+        return Optional.of(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+    }
+
+    /** Deletes all but the newest {@code keep} snapshots, plus leftover temporary files. */
+    static void prune(Path directory, int keep) {
+        List<Path> snapshots = list(directory);
+        for (int i = 0; i < snapshots.size() - keep; i++) {
+            try {
+                Files.deleteIfExists(snapshots.get(i));
+            } catch (IOException e) {
+                log.warn("Could not delete ledger snapshot {}: {}", snapshots.get(i), e.getMessage());
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path tmp : files.filter(p -> p.getFileName().toString().endsWith(SUFFIX + ".tmp")).toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean temporary ledger snapshots: {}", e.getMessage());
+        }
+    }
+
+    /** Makes file creations and renames in {@code directory} durable; a no-op where directories can't be opened. */
+    static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static Snapshot read(ByteBuffer buf) {
+        if (buf.remaining() < 20) {
+            throw new IllegalStateException("truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 0, buf.limit() - 4);
+        if ((int) crc.getValue() != buf.getInt(buf.limit() - 4)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        if (buf.getInt() != MAGIC) {
+            throw new IllegalStateException("not a ledger snapshot");
+        }
+        long seq = buf.getLong();
+        int count = buf.getInt();
+        Map<String, Double> balances = new HashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            byte[] user = new byte[Short.toUnsignedInt(buf.getShort())];
+            buf.get(user);
+            balances.put(new String(user, StandardCharsets.UTF_8), buf.getDouble());
+        }
+        return new Snapshot(seq, balances);
+    }
+
+    private static List<Path> list(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
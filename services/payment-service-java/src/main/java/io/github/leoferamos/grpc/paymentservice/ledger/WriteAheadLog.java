@@ -0,0 +1,324 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of {@link LedgerRecord}s with group commit: one writer thread drains every
+ * record queued while the previous batch was being synced (optionally lingering up to
+ * {@code batchWindow} for more), writes them with one call and makes them durable with one
+ * fsync. Each append completes only once its batch is on disk.
+ *
+ * <p>The log is a sequence of segment files named after their first sequence number; a new
+ * segment is started whenever a snapshot is taken, so older segments can be deleted once the
+ * snapshot covering them is durable. After an I/O error the log fails every pending and later
+ * append rather than acknowledging records it cannot persist.
+ */
+@Slf4j
+public final class WriteAheadLog implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Called on the writer thread with each batch after it is durable. */
+    public interface CommitListener {
+        void committed(List<LedgerRecord> batch, long lastSeq);
+    }
+
+    private final Path directory;
+    private final long batchWindowNanos;
+    private final int maxBatch;
+    private final boolean fsync;
+    private final CommitListener listener;
+
+    private final LinkedBlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private final Thread writer;
+
+    private FileChannel segment;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private long nextSeq;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    /** Set by the writer before its final drain, once it takes no more appends. */
+    private volatile boolean stopped;
+    private boolean rollRequested;
+
+    private volatile long batches;
+    private volatile long records;
+
+    WriteAheadLog(Path directory, long nextSeq, long batchWindowNanos, int maxBatch, boolean fsync,
+                  CommitListener listener) throws IOException {
+        this.directory = directory;
+        this.nextSeq = nextSeq;
+        this.batchWindowNanos = batchWindowNanos;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.fsync = fsync;
+        this.listener = listener;
+        this.segment = openSegment(nextSeq);
+        this.writer = new Thread(this::run, "ledger-wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record and assigns its sequence number. Never blocks; callers that need a
+     * per-user order must call this while holding that user's lock.
+     *
+     * @return completes once the record is durable, or exceptionally if it could not be written
+     */
+    public CompletableFuture<Void> append(LedgerRecord record) {
+        IOException failed = failure;
+        if (failed != null || closed) {
+            throw new UncheckedIOException("Ledger journal is not writable",
+                    failed != null ? failed : new IOException("closed"));
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (appendLock) {
+            queue.add(new Append(record.withSeq(nextSeq++), done));
+        }
+        if (failure != null || stopped) {
+            // The writer stopped while we were queueing; nobody else will answer this append
+            fail(List.of(), failure != null ? failure : new IOException("Ledger journal closed"));
+        }
+        return done;
+    }
+
+    /** Starts a new segment after the current batch; may only be called from a {@link CommitListener}. */
+    void requestRoll() {
+        rollRequested = true;
+    }
+
+    /** Deletes segments holding only records up to {@code seq}. */
+    void deleteSegmentsThrough(long seq) {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSeq(segments.get(i + 1)) <= seq + 1) {
+                try {
+                    Files.deleteIfExists(segments.get(i));
+                } catch (IOException e) {
+                    log.warn("Could not delete ledger segment {}: {}", segments.get(i), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public long batches() {
+        return batches;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    /** Writes what is queued, then stops the writer. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Error closing ledger segment: {}", e.getMessage());
+        }
+    }
+
+    private void run() {
+        List<Append> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                Append first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        stopped = true;
+                        fail(List.of(), new IOException("Ledger journal closed"));
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                if (batchWindowNanos > 0) {
+                    long deadline = System.nanoTime() + batchWindowNanos;
+                    while (batch.size() < maxBatch) {
+                        Append next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, maxBatch - batch.size());
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new IOException("Ledger writer interrupted"));
+                return;
+            } catch (IOException e) {
+                log.error("Ledger journal write failed; refusing further payments: {}", e.getMessage(), e);
+                fail(batch, e);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Append> batch) throws IOException {
+        int size = 0;
+        for (Append a : batch) {
+            size += a.record.encodedSize();
+        }
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size) << 1);
+        }
+        buffer.clear();
+        for (Append a : batch) {
+            a.record.encode(buffer);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        if (fsync) {
+            segment.force(false);
+        }
+        batches++;
+        records += batch.size();
+
+        List<LedgerRecord> committed = new ArrayList<>(batch.size());
+        for (Append a : batch) {
+            committed.add(a.record);
+            a.done.complete(null);
+        }
+        long lastSeq = committed.get(committed.size() - 1).seq();
+        if (listener != null) {
+            listener.committed(committed, lastSeq);
+        }
+        if (rollRequested) {
+            rollRequested = false;
+            segment.close();
+            segment = openSegment(lastSeq + 1);
+        }
+    }
+
+    private void fail(List<Append> batch, IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        for (Append a : batch) {
+            a.done.completeExceptionally(e);
+        }
+        Append a;
+        while ((a = queue.poll()) != null) {
+            a.done.completeExceptionally(e);
+        }
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        Snapshots.syncDirectory(directory);
+        return channel;
+    }
+
+    /**
+     * Applies every intact record with a sequence number above {@code afterSeq} to {@code apply},
+     * in order. A torn or corrupt record at the end of the last segment is an append cut short by
+     * a crash: the segment is truncated there. Earlier segments were complete and synced before
+     * the log moved on, so damage there, or a sequence number that does not follow the previous
+     * one, means acknowledged records are missing and recovery fails instead of dropping them.
+     *
+     * @return the last sequence number seen (or {@code afterSeq} when there was none)
+     * @throws IOException if the records after {@code afterSeq} are not contiguous
+     */
+    static long replay(Path directory, long afterSeq, Consumer<LedgerRecord> apply) throws IOException {
+        long lastSeq = afterSeq;
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            long validBytes = 0;
+            boolean intact = true;
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+            CRC32C crc = new CRC32C();
+            while (data.remaining() > 0) {
+                if (data.remaining() < LedgerRecord.HEADER_BYTES) {
+                    intact = false;
+                    break;
+                }
+                int bodyLength = data.getInt();
+                int checksum = data.getInt();
+                if (bodyLength <= 0 || bodyLength > data.remaining()) {
+                    intact = false;
+                    break;
+                }
+                ByteBuffer body = data.slice(data.position(), bodyLength);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    intact = false;
+                    break;
+                }
+                data.position(data.position() + bodyLength);
+                validBytes = data.position();
+                LedgerRecord record = LedgerRecord.decode(body);
+                if (record.seq() > lastSeq) {
+                    if (record.seq() != lastSeq + 1) {
+                        throw new IOException("Ledger journal gap in " + path + ": expected seq " + (lastSeq + 1)
+                                + " but found " + record.seq());
+                    }
+                    apply.accept(record);
+                    lastSeq = record.seq();
+                }
+            }
+            if (!intact) {
+                if (i + 1 < segments.size()) {
+                    throw new IOException("Ledger segment " + path + " is damaged at byte " + validBytes
+                            + " but later segments follow it; refusing to drop their records");
+                }
+                log.warn("Ledger segment {} ends with a torn or corrupt record at byte {}; truncating", path, validBytes);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                    channel.force(true);
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    static List<Path> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Append(LedgerRecord record, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.leoferamos.grpc.paymentservice.limit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Additive-increase / multiplicative-decrease limit: grows by one per successful call while the
+ * limit is actually being used, backs off by {@code backoffRatio} on a dropped or slow call.
+ */
+@Slf4j
+public class AimdLimit implements Limit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+
+    private volatile int limit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long slowCallNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.slowCallNanos = slowCallNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        int previous = limit;
+        if (dropped || rttNanos > slowCallNanos) {
+            limit = Math.max(minLimit, (int) (previous * backoffRatio));
+        } else if (inFlight * 2 >= previous) {
+            limit = Math.min(maxLimit, previous + 1);
+        }
+        if (limit < previous) {
+            log.debug("Concurrency limit {} -> {} (rtt={}us, dropped={})", previous, limit, rttNanos / 1000, dropped);
+        }
+    }
+}
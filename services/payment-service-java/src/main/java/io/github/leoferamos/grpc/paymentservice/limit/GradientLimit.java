@@ -0,0 +1,94 @@
+package io.github.leoferamos.grpc.paymentservice.limit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gradient limit: compares recent latency with a no-load latency baseline. While latency stays
+ * within {@code tolerance} of the baseline the limit grows by a queue allowance of sqrt(limit);
+ * once calls start queueing, latency rises, the gradient drops below 1 and the limit shrinks in
+ * proportion. Samples are aggregated per window of roughly one limit's worth of calls.
+ */
+@Slf4j
+public class GradientLimit implements Limit {
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double baselineRttNanos;
+
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        windowDropped |= dropped;
+        // One update per "round" of the current limit, using that round's average latency.
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit)) {
+            return;
+        }
+        double shortRtt = Math.max(1, (double) windowRttSum / windowSamples);
+        boolean anyDropped = windowDropped;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+
+        // The baseline is the fastest window seen. It only moves up while the limit sits near its
+        // floor: latency that stays high with that few calls in flight is the work getting slower,
+        // not queueing, and must not keep the limit pinned down.
+        if (baselineRttNanos == 0 || shortRtt < baselineRttNanos) {
+            baselineRttNanos = shortRtt;
+        } else if (estimatedLimit <= 2 * minLimit) {
+            baselineRttNanos += (shortRtt - baselineRttNanos) * smoothing;
+        }
+
+        // Under light load latency says nothing about capacity; don't let the limit drift up.
+        if (!anyDropped && maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = anyDropped ? 0.5 : Math.max(0.5, Math.min(1.0, tolerance * baselineRttNanos / shortRtt));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+
+        int previous = limit;
+        limit = (int) estimatedLimit;
+        if (previous != limit) {
+            log.debug("Concurrency limit {} -> {} (rtt={}us, baseline={}us, inFlight={})", previous, limit,
+                    (long) shortRtt / 1000, (long) baselineRttNanos / 1000, maxInFlight);
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.leoferamos.grpc.paymentservice.limit;
+
+/**
+ * Concurrency limit that adapts to the latency of completed calls.
+ */
+public interface Limit {
+
+    /** Current number of calls allowed in flight. */
+    int getLimit();
+
+    /**
+     * Records one completed call.
+     *
+     * @param rttNanos time from admission to completion
+     * @param inFlight calls in flight when this one was admitted, itself included
+     * @param dropped  whether the call timed out or was cancelled by the client
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,166 @@
+package io.github.leoferamos.grpc.paymentservice.marshalling;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protobuf marshaller that serializes outgoing messages into a per-thread scratch array instead
+ * of the fresh message-sized array the default marshaller allocates for every message; the
+ * transport copies the bytes from there into a buffer from the channel's pooled allocator.
+ * Messages over {@link #MAX_SCRATCH_BYTES} get their own array, as before.
+ *
+ * <p>Parsing stays with the default, which already copies each received message into a reused
+ * per-thread array. Decoding in place from the transport's buffers allocates more, not less:
+ * with mTLS those buffers are direct, and protobuf decodes strings from direct memory through a
+ * temporary char array (see MarshallingBenchmark in gateway-api).
+ */
+public final class PooledProtoMarshaller<T extends MessageLite> implements MethodDescriptor.PrototypeMarshaller<T> {
+
+    /** Largest message serialized through the scratch array; bounds what each thread keeps. */
+    public static final int MAX_SCRATCH_BYTES = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    /** How many messages were serialized through the scratch array and how many needed their own. */
+    public static final class Counters {
+        private final LongAdder scratch = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        public long scratch() {
+            return scratch.sum();
+        }
+
+        public long allocated() {
+            return allocated.sum();
+        }
+    }
+
+    private final MethodDescriptor.PrototypeMarshaller<T> fallback;
+    private final Counters counters;
+
+    public PooledProtoMarshaller(MethodDescriptor.PrototypeMarshaller<T> fallback, Counters counters) {
+        this.fallback = fallback;
+        this.counters = counters;
+    }
+
+    /**
+     * Wraps {@code marshaller} if it is a protobuf marshaller; anything else is returned as is.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MethodDescriptor.Marshaller<T> wrap(MethodDescriptor.Marshaller<T> marshaller,
+                                                          Counters counters) {
+        if (marshaller instanceof PooledProtoMarshaller<?>
+                || !(marshaller instanceof MethodDescriptor.PrototypeMarshaller<?> prototype)
+                || !(prototype.getMessagePrototype() instanceof MessageLite)) {
+            return marshaller;
+        }
+        return (MethodDescriptor.Marshaller<T>) new PooledProtoMarshaller<>(
+                (MethodDescriptor.PrototypeMarshaller<MessageLite>) marshaller, counters);
+    }
+
+    @Override
+    public Class<T> getMessageClass() {
+        return fallback.getMessageClass();
+    }
+
+    @Override
+    public T getMessagePrototype() {
+        return fallback.getMessagePrototype();
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return new MessageStream(value);
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+        return fallback.parse(stream);
+    }
+
+    private static byte[] scratch(int size) {
+        byte[] buf = SCRATCH.get();
+        if (buf.length < size) {
+            buf = new byte[Math.min(Integer.highestOneBit(size - 1) << 1, MAX_SCRATCH_BYTES)];
+            SCRATCH.set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * The transport drains this straight into its buffer; only a caller that reads it byte by
+     * byte gets a copy of the serialized message.
+     */
+    private final class MessageStream extends InputStream implements Drainable, KnownLength {
+
+        private MessageLite message;
+        private ByteArrayInputStream partial;
+
+        MessageStream(MessageLite message) {
+            this.message = message;
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            if (message != null) {
+                int size = message.getSerializedSize();
+                byte[] buf;
+                if (size <= MAX_SCRATCH_BYTES) {
+                    buf = scratch(size);
+                    counters.scratch.increment();
+                } else {
+                    buf = new byte[size];
+                    counters.allocated.increment();
+                }
+                CodedOutputStream out = CodedOutputStream.newInstance(buf, 0, size);
+                message.writeTo(out);
+                out.checkNoSpaceLeft();
+                target.write(buf, 0, size);
+                message = null;
+                return size;
+            }
+            if (partial != null) {
+                int written = (int) partial.transferTo(target);
+                partial = null;
+                return written;
+            }
+            return 0;
+        }
+
+        @Override
+        public int read() {
+            ByteArrayInputStream in = bytes();
+            return in == null ? -1 : in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            ByteArrayInputStream in = bytes();
+            return in == null ? -1 : in.read(b, off, len);
+        }
+
+        @Override
+        public int available() {
+            if (message != null) {
+                return message.getSerializedSize();
+            }
+            return partial == null ? 0 : partial.available();
+        }
+
+        private ByteArrayInputStream bytes() {
+            if (message != null) {
+                partial = new ByteArrayInputStream(message.toByteArray());
+                message = null;
+            }
+            return partial;
+        }
+    }
+}
@@ -1,71 +1,141 @@
 package io.github.leoferamos.grpc.paymentservice.server;
 
+import io.github.leoferamos.grpc.payment.PaymentMethod;
 import io.github.leoferamos.grpc.payment.PaymentRequest;
 import io.github.leoferamos.grpc.payment.PaymentResponse;
 import io.github.leoferamos.grpc.payment.PaymentServiceGrpc;
+import io.github.leoferamos.grpc.payment.PaymentStatus;
+import io.github.leoferamos.grpc.paymentservice.id.IdGenerator;
+import io.github.leoferamos.grpc.paymentservice.ledger.BalanceLedger;
+import io.github.leoferamos.grpc.paymentservice.profiling.HandlerEvent;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 public class PaymentServiceImpl extends PaymentServiceGrpc.PaymentServiceImplBase {
 
-    // Simulated user balances
-    private final Map<String, Double> userBalances = new ConcurrentHashMap<>();
+    // Simulated user balances, journaled so debits survive a restart
+    private final BalanceLedger userBalances;
+    private final IdGenerator idGenerator;
 
-    public PaymentServiceImpl() {
-        // Initialize some test users with balances
-        userBalances.put("customer-123", 1000.0);
-        userBalances.put("customer-456", 500.0);
-        userBalances.put("customer-789", 2000.0);
-        userBalances.put("customer-poor", 50.0);
-        log.info("[PaymentService] Initialized {} test user accounts", userBalances.size());
+    /** Keep filling the pre-enum string fields until every client reads status_code. */
+    @Value("${grpc.wire.legacy-status-strings:true}")
+    private boolean legacyStatusStrings;
+
+    public PaymentServiceImpl(IdGenerator idGenerator, BalanceLedger userBalances) {
+        this.idGenerator = idGenerator;
+        this.userBalances = userBalances;
+        // Initialize some test users with balances, unless the ledger already has accounts
+        Map<String, Double> testUsers = new LinkedHashMap<>();
+        testUsers.put("customer-123", 1000.0);
+        testUsers.put("customer-456", 500.0);
+        testUsers.put("customer-789", 2000.0);
+        testUsers.put("customer-poor", 50.0);
+        if (userBalances.seedIfEmpty(testUsers)) {
+            log.info("[PaymentService] Initialized {} test user accounts", userBalances.accounts());
+        } else {
+            log.info("[PaymentService] Restored {} user accounts from the ledger", userBalances.accounts());
+        }
     }
 
     @Override
     public void processPayment(PaymentRequest request, StreamObserver<PaymentResponse> responseObserver) {
-        log.info("[PaymentService] Processing payment for orderId={}, userId={}, amount={}, method={}",
-                request.getOrderId(), request.getUserId(), request.getAmount(), request.getPaymentMethod());
-
+        HandlerEvent event = HandlerEvent.start("processPayment");
         String orderId = request.getOrderId();
-        String userId = request.getUserId();
-        double amount = request.getAmount();
-        String method = request.getPaymentMethod();
+        // Anything that leaves before the response is sent, thrown or not, is recorded as an error
+        String outcome = "ERROR";
+        try {
+            PaymentMethod method = paymentMethodOf(request);
+            log.info("[PaymentService] Processing payment for orderId={}, userId={}, amount={}, method={}",
+                    orderId, request.getUserId(), request.getAmount(), method);
 
-        String status;
-        String message;
+            String userId = request.getUserId();
+            double amount = request.getAmount();
 
-        // Check if user has sufficient balance
-        double balance = userBalances.getOrDefault(userId, 0.0);
-        
-        if (balance < amount) {
-            status = "REJECTED";
-            message = String.format("Insufficient balance: has $%.2f, needs $%.2f", balance, amount);
-            log.warn("[PaymentService] Payment rejected: insufficient balance");
-        } else if (amount > 1000.0) {
-            status = "PENDING";
-            message = "High amount requires manual review";
-            log.info("[PaymentService] Payment pending review");
-        } else {
-            status = "APPROVED";
-            message = method + " payment approved";
-            userBalances.put(userId, balance - amount);
-            log.info("[PaymentService] Payment approved. New balance: ${}", balance - amount);
+            PaymentStatus status;
+            String message;
+            String paymentId = idGenerator.nextId();
+
+            // Check if user has sufficient balance
+            double balance = userBalances.balance(userId);
+
+            if (balance < amount) {
+                status = PaymentStatus.PAYMENT_STATUS_REJECTED;
+                message = String.format("Insufficient balance: has $%.2f, needs $%.2f", balance, amount);
+                log.warn("[PaymentService] Payment rejected: insufficient balance");
+            } else if (amount > 1000.0) {
+                status = PaymentStatus.PAYMENT_STATUS_PENDING;
+                message = "High amount requires manual review";
+                log.info("[PaymentService] Payment pending review");
+            } else {
+                BalanceLedger.Debit debit;
+                try {
+                    // Returns once the debit is durable in the ledger journal
+                    debit = userBalances.debit(userId, amount, paymentId);
+                } catch (UncheckedIOException e) {
+                    log.error("[PaymentService] Ledger unavailable, payment for orderId={} not taken: {}",
+                            orderId, e.getMessage());
+                    responseObserver.onError(Status.UNAVAILABLE
+                            .withDescription("Payment ledger unavailable")
+                            .asRuntimeException());
+                    return;
+                }
+                if (debit.applied()) {
+                    status = PaymentStatus.PAYMENT_STATUS_APPROVED;
+                    message = legacyName(method, "PAYMENT_METHOD_") + " payment approved";
+                    log.info("[PaymentService] Payment approved. New balance: ${}", debit.balanceAfter());
+                } else {
+                    // A concurrent payment spent the balance after the check above
+                    status = PaymentStatus.PAYMENT_STATUS_REJECTED;
+                    message = String.format("Insufficient balance: has $%.2f, needs $%.2f", debit.balanceBefore(), amount);
+                    log.warn("[PaymentService] Payment rejected: insufficient balance");
+                }
+            }
+
+            PaymentResponse.Builder response = PaymentResponse.newBuilder()
+                    .setPaymentId(paymentId)
+                    .setStatusCode(status)
+                    .setMessage(message);
+            if (legacyStatusStrings) {
+                response.setStatus(legacyName(status, "PAYMENT_STATUS_"));
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+            outcome = status.name();
+        } finally {
+            event.finish(orderId, outcome);
         }
+    }
 
-        String paymentId = UUID.randomUUID().toString();
-        PaymentResponse response = PaymentResponse.newBuilder()
-                .setPaymentId(paymentId)
-                .setStatus(status)
-                .setMessage(message)
-                .build();
+    /** Prefer the v2 enum; fall back to the legacy string sent by older clients. */
+    private static PaymentMethod paymentMethodOf(PaymentRequest request) {
+        if (request.getPaymentMethodCode() != PaymentMethod.PAYMENT_METHOD_UNSPECIFIED
+                && request.getPaymentMethodCode() != PaymentMethod.UNRECOGNIZED) {
+            return request.getPaymentMethodCode();
+        }
+        switch (request.getPaymentMethod().toUpperCase()) {
+            case "CREDIT_CARD":
+                return PaymentMethod.PAYMENT_METHOD_CREDIT_CARD;
+            case "PIX":
+                return PaymentMethod.PAYMENT_METHOD_PIX;
+            case "DEBIT_CARD":
+                return PaymentMethod.PAYMENT_METHOD_DEBIT_CARD;
+            default:
+                return PaymentMethod.PAYMENT_METHOD_UNSPECIFIED;
+        }
+    }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+    private static String legacyName(Enum<?> value, String prefix) {
+        String name = value.name();
+        return name.startsWith(prefix) ? name.substring(prefix.length()) : name;
     }
 }
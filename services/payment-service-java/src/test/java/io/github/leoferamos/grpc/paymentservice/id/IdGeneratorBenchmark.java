@@ -0,0 +1,72 @@
+package io.github.leoferamos.grpc.paymentservice.id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded throughput of {@link SnowflakeIdGenerator} vs {@link UuidIdGenerator}.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.leoferamos.grpc.paymentservice.id.IdGeneratorBenchmark \
+ *     -Dexec.args="8 5"   # threads, seconds per round
+ * </pre>
+ */
+public class IdGeneratorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        IdGenerator uuid = new UuidIdGenerator();
+        IdGenerator snowflake = new SnowflakeIdGenerator(1);
+
+        // warm-up
+        run("uuid", uuid, threads, 1, false);
+        run("snowflake", snowflake, threads, 1, false);
+
+        System.out.printf("%-10s %8s %14s %10s%n", "generator", "threads", "ids/sec", "id length");
+        run("uuid", uuid, threads, seconds, true);
+        run("snowflake", snowflake, threads, seconds, true);
+    }
+
+    private static void run(String name, IdGenerator generator, int threads, int seconds, boolean report)
+            throws InterruptedException {
+        LongAdder count = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        int[] sink = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            final int slot = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long local = 0;
+                int hash = 0;
+                while ((local & 1023) != 0 || System.nanoTime() < deadline) {
+                    hash += generator.nextId().hashCode();
+                    local++;
+                }
+                sink[slot] = hash;
+                count.add(local);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (report) {
+            System.out.printf("%-10s %8d %,14d %10d%n", name, threads, count.sum() / seconds,
+                    generator.nextId().length());
+        }
+    }
+}
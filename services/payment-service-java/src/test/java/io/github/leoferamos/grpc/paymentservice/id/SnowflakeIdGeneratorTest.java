@@ -0,0 +1,52 @@
+package io.github.leoferamos.grpc.paymentservice.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 86_400_000L;
+
+    @Test
+    void idsStayMonotonicWithinOneMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, () -> NOW);
+
+        // More ids than the 4096 sequence values of one millisecond
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextLong();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(nodeOf(id)).isEqualTo(7);
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsStayMonotonicWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, clock::get);
+
+        long beforeRollback = generator.nextLong();
+        clock.set(NOW - 5_000);
+        long afterRollback = generator.nextLong();
+        assertThat(afterRollback).isGreaterThan(beforeRollback);
+        assertThat(SnowflakeIdGenerator.timestampMillis(afterRollback)).isEqualTo(NOW);
+
+        clock.set(NOW + 1);
+        assertThat(SnowflakeIdGenerator.timestampMillis(generator.nextLong())).isEqualTo(NOW + 1);
+    }
+
+    @Test
+    void encodesTheTimestampAndNode() {
+        long id = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, () -> NOW).nextLong();
+
+        assertThat(SnowflakeIdGenerator.timestampMillis(id)).isEqualTo(NOW);
+        assertThat(nodeOf(id)).isEqualTo(SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BalanceLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void debitsSurviveReopen() throws IOException {
+        try (BalanceLedger ledger = open(Duration.ZERO, Long.MAX_VALUE)) {
+            assertThat(ledger.seedIfEmpty(Map.of("alice", 100.0))).isTrue();
+            assertThat(ledger.debit("alice", 30, "p1").applied()).isTrue();
+            assertThat(ledger.debit("alice", 500, "p2").applied()).isFalse();
+        }
+
+        try (BalanceLedger ledger = open(Duration.ZERO, Long.MAX_VALUE)) {
+            assertThat(ledger.isRecovered()).isTrue();
+            assertThat(ledger.seedIfEmpty(Map.of("alice", 100.0))).isFalse();
+            assertThat(ledger.balance("alice")).isEqualTo(70.0);
+        }
+    }
+
+    @Test
+    void recoversFromTheOlderSnapshotWhenTheNewestIsDamaged() throws IOException {
+        // 25 records: snapshots at seq 20 and 25, each followed by a new segment
+        try (BalanceLedger ledger = open(Duration.ZERO, 5)) {
+            ledger.seedIfEmpty(Map.of("alice", 100.0));
+            for (int i = 0; i < 24; i++) {
+                ledger.debit("alice", 1, "p" + i);
+            }
+        }
+        List<Path> snapshots = snapshots();
+        assertThat(snapshots).hasSize(2);
+        damage(snapshots.get(1));
+
+        try (BalanceLedger ledger = open(Duration.ZERO, 5)) {
+            assertThat(ledger.balance("alice")).isEqualTo(76.0);
+        }
+    }
+
+    @Test
+    void refusesToStartWhenTheJournalNoLongerReachesBackToASnapshot() throws IOException {
+        try (BalanceLedger ledger = open(Duration.ZERO, 5)) {
+            ledger.seedIfEmpty(Map.of("alice", 100.0));
+            for (int i = 0; i < 23; i++) {
+                ledger.debit("alice", 1, "p" + i);
+            }
+        }
+        for (Path snapshot : snapshots()) {
+            damage(snapshot);
+        }
+
+        assertThatThrownBy(() -> open(Duration.ZERO, 5))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("gap");
+    }
+
+    @Test
+    void failedJournalWriteRestoresTheBalance() throws Exception {
+        try (BalanceLedger ledger = open(Duration.ZERO, Long.MAX_VALUE)) {
+            ledger.seedIfEmpty(Map.of("alice", 100.0));
+        }
+        // A long batch window holds the debit in the writer until the writer is interrupted
+        try (BalanceLedger ledger = open(Duration.ofSeconds(30), Long.MAX_VALUE)) {
+            CompletableFuture<BalanceLedger.Debit> debit =
+                    CompletableFuture.supplyAsync(() -> ledger.debit("alice", 30, "p1"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (ledger.balance("alice") != 70.0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(ledger.balance("alice")).isEqualTo(70.0);
+            writerThread().interrupt();
+
+            assertThatThrownBy(() -> debit.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(UncheckedIOException.class);
+            assertThat(ledger.balance("alice")).isEqualTo(100.0);
+            assertThatThrownBy(() -> ledger.debit("alice", 10, "p2")).isInstanceOf(UncheckedIOException.class);
+            assertThat(ledger.balance("alice")).isEqualTo(100.0);
+        }
+    }
+
+    private BalanceLedger open(Duration batchWindow, long snapshotEveryRecords) throws IOException {
+        return BalanceLedger.open(dir, batchWindow, 64, false, snapshotEveryRecords, null);
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".snap")).sorted().toList();
+        }
+    }
+
+    private static void damage(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+    }
+
+    private static Thread writerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("ledger-wal-writer") && t.isAlive())
+                .findFirst()
+                .orElseThrow();
+    }
+}
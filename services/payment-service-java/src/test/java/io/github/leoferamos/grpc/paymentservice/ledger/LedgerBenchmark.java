@@ -0,0 +1,141 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Durable payments/sec with one fsync per payment vs group commit at several batch windows,
+ * with concurrent payers debiting random accounts. The last round is closed and reopened to
+ * check that replay restores every balance, and to time it.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.leoferamos.grpc.paymentservice.ledger.LedgerBenchmark \
+ *     -Dexec.args="64 5 /var/tmp"   # payer threads, seconds per round, directory on the disk to test
+ * </pre>
+ */
+public class LedgerBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path base = args.length > 2 ? Path.of(args[2]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        System.out.printf("%d payer threads, %ds per round, journal under %s%n%n", threads, seconds, base);
+        System.out.printf("%-24s %12s %12s %10s %10s%n", "mode", "payments/s", "per fsync", "p50", "p99");
+
+        run("memory only (no journal)", false, Duration.ZERO, 1, threads, seconds, base);
+        run("fsync per payment", true, Duration.ZERO, 1, threads, seconds, base);
+        Round last = null;
+        for (Duration window : List.of(Duration.ZERO, Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5))) {
+            last = run("group, window " + window.toMillis() + "ms", true, window, 1024, threads, seconds, base);
+        }
+        verifyReplay(last);
+        deleteAll(base, "ledger-bench-");
+    }
+
+    /** Journal directory of a finished round and the balances it ended with. */
+    private record Round(Path dir, Map<String, Double> balances) {
+    }
+
+    private static Round run(String mode, boolean journaled, Duration window, int maxBatch, int threads, int seconds,
+                             Path base) throws Exception {
+        Path dir = journaled ? Files.createTempDirectory(base, "ledger-bench-") : null;
+        BalanceLedger ledger = dir == null ? BalanceLedger.inMemory()
+                : BalanceLedger.open(dir, window, maxBatch, true, 1_000_000, Duration.ofMinutes(5));
+        Map<String, Double> seeds = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            seeds.put("user-" + i, 1_000_000_000.0);
+        }
+        ledger.seedIfEmpty(seeds);
+        long commitsBefore = ledger.commits();
+
+        long[][] latencies = new long[threads][];
+        int[] counts = new int[threads];
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread payer = new Thread(() -> {
+                long[] samples = new long[1 << 16];
+                int n = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    ledger.debit("user-" + random.nextInt(ACCOUNTS), 1.25, "bench");
+                    if (n == samples.length) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                    }
+                    samples[n++] = System.nanoTime() - start;
+                }
+                latencies[id] = samples;
+                counts[id] = n;
+                done.countDown();
+            });
+            payer.start();
+        }
+        done.await();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int pos = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, pos, counts[t]);
+            pos += counts[t];
+        }
+        Arrays.sort(all);
+        long commits = ledger.commits() - commitsBefore;
+        System.out.printf("%-24s %,12.0f %12s %8.2fms %8.2fms%n", mode, total / (double) seconds,
+                commits == 0 ? "-" : String.format("%.1f", total / (double) commits),
+                all.length == 0 ? 0 : all[all.length / 2] / 1e6, all.length == 0 ? 0 : all[(int) (all.length * 0.99)] / 1e6);
+
+        Map<String, Double> balances = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balances.put("user-" + i, ledger.balance("user-" + i));
+        }
+        ledger.close();
+        return new Round(dir, balances);
+    }
+
+    private static void verifyReplay(Round round) throws Exception {
+        long start = System.nanoTime();
+        BalanceLedger reopened = BalanceLedger.open(round.dir(), Duration.ZERO, 1024, true, 1_000_000,
+                Duration.ofMinutes(5));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        int mismatches = 0;
+        for (Map.Entry<String, Double> e : round.balances().entrySet()) {
+            if (reopened.balance(e.getKey()) != e.getValue()) {
+                mismatches++;
+            }
+        }
+        reopened.close();
+        System.out.printf("%nreopen of the last round: %d ms, %d of %d balances differ%n",
+                millis, mismatches, round.balances().size());
+    }
+
+    private static void deleteAll(Path base, String prefix) throws Exception {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(base)) {
+            for (Path d : dirs.filter(p -> p.getFileName().toString().startsWith(prefix)).toList()) {
+                try (Stream<Path> walk = Files.walk(d)) {
+                    walk.sorted(Comparator.reverseOrder()).forEach(paths::add);
+                }
+            }
+        }
+        for (Path p : paths) {
+            Files.deleteIfExists(p);
+        }
+    }
+}
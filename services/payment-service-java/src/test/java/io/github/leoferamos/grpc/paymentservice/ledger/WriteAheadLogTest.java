@@ -0,0 +1,115 @@
+package io.github.leoferamos.grpc.paymentservice.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysRecordsAfterTheGivenSequence() throws IOException {
+        try (WriteAheadLog wal = open(false)) {
+            append(wal, "alice", 90);
+            append(wal, "bob", 40);
+            append(wal, "alice", 80);
+        }
+
+        List<LedgerRecord> all = new ArrayList<>();
+        assertThat(WriteAheadLog.replay(dir, 0, all::add)).isEqualTo(3);
+        assertThat(all).extracting(LedgerRecord::seq).containsExactly(1L, 2L, 3L);
+        assertThat(all).extracting(LedgerRecord::balance).containsExactly(90.0, 40.0, 80.0);
+
+        List<LedgerRecord> tail = new ArrayList<>();
+        assertThat(WriteAheadLog.replay(dir, 2, tail::add)).isEqualTo(3);
+        assertThat(tail).extracting(LedgerRecord::userId).containsExactly("alice");
+    }
+
+    @Test
+    void truncatesATornRecordAtTheEndOfTheLastSegment() throws IOException {
+        try (WriteAheadLog wal = open(false)) {
+            append(wal, "alice", 90);
+            append(wal, "alice", 80);
+        }
+        Path segment = WriteAheadLog.segments(dir).get(0);
+        long intactSize = Files.size(segment);
+        // Header of a 40-byte body followed by only part of it, as left by a crash mid-write
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(13).putInt(40).putInt(0x1234).put(new byte[5]).flip());
+        }
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        assertThat(WriteAheadLog.replay(dir, 0, replayed::add)).isEqualTo(2);
+        assertThat(replayed).hasSize(2);
+        assertThat(Files.size(segment)).isEqualTo(intactSize);
+    }
+
+    @Test
+    void replaysAcrossRolledSegments() throws IOException {
+        try (WriteAheadLog wal = open(true)) {
+            append(wal, "alice", 90);
+            append(wal, "alice", 80);
+            append(wal, "alice", 70);
+        }
+        // One segment per batch plus the empty one opened by the last roll
+        assertThat(WriteAheadLog.segments(dir)).hasSize(4);
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        assertThat(WriteAheadLog.replay(dir, 0, replayed::add)).isEqualTo(3);
+        assertThat(replayed).extracting(LedgerRecord::balance).containsExactly(90.0, 80.0, 70.0);
+    }
+
+    @Test
+    void failsOnASequenceGap() throws IOException {
+        try (WriteAheadLog wal = open(true)) {
+            append(wal, "alice", 90);
+            append(wal, "alice", 80);
+            append(wal, "alice", 70);
+        }
+        Files.delete(WriteAheadLog.segments(dir).get(1));
+
+        assertThatThrownBy(() -> WriteAheadLog.replay(dir, 0, r -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("expected seq 2 but found 3");
+    }
+
+    @Test
+    void failsOnDamageBeforeTheLastSegment() throws IOException {
+        try (WriteAheadLog wal = open(true)) {
+            append(wal, "alice", 90);
+            append(wal, "alice", 80);
+        }
+        Path first = WriteAheadLog.segments(dir).get(0);
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(first, bytes);
+
+        assertThatThrownBy(() -> WriteAheadLog.replay(dir, 0, r -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("later segments follow");
+        assertThat(WriteAheadLog.segments(dir)).hasSize(3);
+    }
+
+    /** With {@code rollEveryBatch} every committed batch starts a new segment, as a snapshot would. */
+    private WriteAheadLog open(boolean rollEveryBatch) throws IOException {
+        WriteAheadLog[] wal = new WriteAheadLog[1];
+        wal[0] = new WriteAheadLog(dir, 1, 0, 64, false, rollEveryBatch ? (batch, lastSeq) -> wal[0].requestRoll() : null);
+        return wal[0];
+    }
+
+    private static void append(WriteAheadLog wal, String userId, double balance) {
+        wal.append(new LedgerRecord(0, userId, balance, -10, "ref")).join();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.leoferamos.grpc.paymentservice.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AimdLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(600);
+
+    @Test
+    void growsByOnePerFastCallWhileTheLimitIsUsed() {
+        AimdLimit limit = limit(20);
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(25);
+    }
+
+    @Test
+    void doesNotGrowUnderLightLoad() {
+        AimdLimit limit = limit(20);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 2, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void backsOffWhenLatencyRises() {
+        AimdLimit limit = limit(100);
+        limit.onSample(SLOW, 100, false);
+        assertThat(limit.getLimit()).isEqualTo(90);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void backsOffOnDroppedCallsEvenWhenFast() {
+        AimdLimit limit = limit(100);
+        limit.onSample(FAST, 100, true);
+
+        assertThat(limit.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    void recoversOnceLatencyDropsBackAndStopsAtTheMaximum() {
+        AimdLimit limit = limit(100);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+        int backedOff = limit.getLimit();
+        assertThat(backedOff).isLessThan(40);
+
+        for (int i = 0; i < 2000; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(1000);
+    }
+
+    private static AimdLimit limit(int initial) {
+        return new AimdLimit(initial, 4, 1000, 0.9, TimeUnit.MILLISECONDS.toNanos(500));
+    }
+}
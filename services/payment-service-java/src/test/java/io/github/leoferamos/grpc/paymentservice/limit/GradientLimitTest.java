@@ -0,0 +1,89 @@
+package io.github.leoferamos.grpc.paymentservice.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTest {
+
+    private static final long BASELINE = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long QUEUED = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaseline() {
+        GradientLimit limit = limit();
+        rounds(limit, 5, BASELINE, false);
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void doesNotGrowUnderLightLoad() {
+        GradientLimit limit = limit();
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(BASELINE, 2, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAboveTheBaseline() {
+        GradientLimit limit = limit();
+        rounds(limit, 5, BASELINE, false);
+        int before = limit.getLimit();
+
+        rounds(limit, 1, QUEUED, false);
+        assertThat(limit.getLimit()).isLessThan(before);
+
+        // Sustained high latency near the floor is taken as slower work and stops the descent
+        rounds(limit, 30, QUEUED, false);
+        assertThat(limit.getLimit()).isLessThan(before / 2).isGreaterThan(4);
+    }
+
+    @Test
+    void latencyWithinToleranceDoesNotShrinkTheLimit() {
+        GradientLimit limit = limit();
+        rounds(limit, 5, BASELINE, false);
+        int before = limit.getLimit();
+
+        rounds(limit, 5, BASELINE * 14 / 10, false);
+        assertThat(limit.getLimit()).isGreaterThan(before);
+    }
+
+    @Test
+    void shrinksOnDroppedCallsEvenAtTheBaseline() {
+        GradientLimit limit = limit();
+        rounds(limit, 5, BASELINE, false);
+        int before = limit.getLimit();
+
+        rounds(limit, 3, BASELINE, true);
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void recoversOnceLatencyDropsBack() {
+        GradientLimit limit = limit();
+        rounds(limit, 5, BASELINE, false);
+        rounds(limit, 30, QUEUED, false);
+        int shrunk = limit.getLimit();
+
+        rounds(limit, 30, BASELINE, false);
+        assertThat(limit.getLimit()).isGreaterThan(shrunk).isGreaterThan(20);
+    }
+
+    /** Feeds whole windows (one per round of the current limit) with the limit fully used. */
+    private static void rounds(GradientLimit limit, int rounds, long rttNanos, boolean dropped) {
+        for (int round = 0; round < rounds; round++) {
+            int calls = Math.max(10, limit.getLimit());
+            for (int i = 0; i < calls; i++) {
+                limit.onSample(rttNanos, limit.getLimit(), dropped);
+            }
+        }
+    }
+
+    private static GradientLimit limit() {
+        return new GradientLimit(20, 4, 1000, 1.5, 0.2);
+    }
+}